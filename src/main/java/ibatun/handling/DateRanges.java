@@ -0,0 +1,95 @@
+package ibatun.handling;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+import ibatun.errors.IbatunException;
+import ibatun.util.DatetimeConverter;
+
+/**
+ * Utility class for reading the ends of date ranges given to the date query commands.
+ *
+ * <p>
+ * Besides everything {@link DatetimeConverter#parse(String)} accepts, a range end may be {@code today},
+ * {@code tomorrow} or {@code week}, the last meaning the days up to and including the coming Sunday. A date without a
+ * time covers the whole day, so it starts at midnight and ends just before the next midnight.
+ */
+final class DateRanges {
+    private DateRanges() {
+    }
+
+    /**
+     * Reads the earliest instant covered by the given text.
+     *
+     * @param text The date, date/time or named day
+     * @return The start of the range
+     * @throws IbatunException if the text cannot be read
+     */
+    static LocalDateTime start(String text) throws IbatunException {
+        LocalDate namedDay = firstNamedDay(text);
+        if (namedDay != null) {
+            return namedDay.atStartOfDay();
+        }
+        return DatetimeConverter.parse(text);
+    }
+
+    /**
+     * Reads the latest instant covered by the given text.
+     *
+     * @param text The date, date/time or named day
+     * @return The end of the range
+     * @throws IbatunException if the text cannot be read
+     */
+    static LocalDateTime end(String text) throws IbatunException {
+        LocalDate namedDay = lastNamedDay(text);
+        if (namedDay != null) {
+            return namedDay.atTime(LocalTime.MAX);
+        }
+        LocalDateTime dateTime = DatetimeConverter.parse(text);
+        return DatetimeConverter.hasTime(text) ? dateTime : dateTime.toLocalDate().atTime(LocalTime.MAX);
+    }
+
+    /**
+     * Checks that a range does not end before it starts.
+     *
+     * @param from The start of the range
+     * @param to   The end of the range
+     * @throws IbatunException if the range ends before it starts
+     */
+    static void checkOrder(LocalDateTime from, LocalDateTime to) throws IbatunException {
+        if (to.isBefore(from)) {
+            throw new IbatunException("The range cannot end before it starts. Unless time travel is involved.");
+        }
+    }
+
+    private static LocalDate firstNamedDay(String text) {
+        String name = text.trim().toLowerCase(Locale.ENGLISH);
+        switch (name) {
+        case "today":
+        case "week":
+            return LocalDate.now();
+        case "tomorrow":
+            return LocalDate.now().plusDays(1);
+        default:
+            return null;
+        }
+    }
+
+    private static LocalDate lastNamedDay(String text) {
+        String name = text.trim().toLowerCase(Locale.ENGLISH);
+        switch (name) {
+        case "today":
+            return LocalDate.now();
+        case "tomorrow":
+            return LocalDate.now().plusDays(1);
+        case "week":
+            return LocalDate.now().with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+        default:
+            return null;
+        }
+    }
+}
@@ -4,10 +4,9 @@ import java.util.function.Consumer;
 
 import ibatun.errors.IbatunException;
 import ibatun.storage.TaskStore;
-import ibatun.tasks.Task;
 
 /**
- * Handles the "delete" command, which deletes a task from the task store.
+ * Handles the "delete" command, which deletes one or more tasks from the task store in a single operation.
  */
 final class DeleteHandler extends Handler {
     /**
@@ -27,17 +26,18 @@ final class DeleteHandler extends Handler {
 
     @Override
     void handle(String[] args) {
-        if (args.length != 1 || args[0].isBlank()) {
+        if (args.length == 0 || String.join("", args).isBlank()) {
             fail("Please provide a valid task number. I only count on purpose.");
             return;
         }
 
         try {
-            int taskNum = Integer.parseInt(args[0]) - 1;
-            Task t = store.get(taskNum);
-            store.remove(taskNum);
-            succeed("Poof. I've removed this task:\n    "
-                    + t.toString()
+            int[] positions = resolvePositions(args);
+            String removed = describeTasks(positions, "\n    ");
+            store.removeAll(positions);
+            succeed((positions.length == 1 ? "Poof. I've removed this task:" : "Poof. I've removed these tasks:")
+                    + "\n    "
+                    + removed
                     + "\nNow you have "
                     + store.list().size()
                     + " tasks in the list.");
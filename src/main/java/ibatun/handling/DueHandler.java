@@ -0,0 +1,68 @@
+package ibatun.handling;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import ibatun.errors.IbatunException;
+import ibatun.index.DateIndex;
+import ibatun.storage.TaskStore;
+import ibatun.tasks.Deadline;
+import ibatun.util.ArgTools;
+
+/**
+ * Handles the "due" command, which lists the deadlines due by a date, or within a range of dates.
+ *
+ * @see DateRanges
+ */
+final class DueHandler extends Handler {
+    private final DateIndex dates;
+
+    /**
+     * Constructs a DueHandler.
+     *
+     * @param store     The task store
+     * @param dates     The date index over the task store
+     * @param onRespond The consumer function to handle responses
+     */
+    DueHandler(TaskStore store, DateIndex dates, Consumer<String> onRespond) {
+        super(store, onRespond);
+        assert dates != null : "DateIndex cannot be null";
+
+        this.dates = dates;
+    }
+
+    @Override
+    boolean canHandle(String command) {
+        return "due".equals(command);
+    }
+
+    @Override
+    void handle(String[] args) {
+        String[] parts = ArgTools.splitByDelimiters(args, "/to");
+        if (parts[0].isBlank() || parts.length == 2 && parts[1].isBlank()) {
+            fail("Tell me how far ahead to look.\n\n"
+                    + "Format: due <date/time|today|tomorrow|week> or due <from> /to <to>\n"
+                    + "The future is a big place.");
+            return;
+        }
+
+        LocalDateTime from;
+        LocalDateTime to;
+        try {
+            from = parts.length == 2 ? DateRanges.start(parts[0]) : LocalDateTime.MIN;
+            to = DateRanges.end(parts[parts.length - 1]);
+            DateRanges.checkOrder(from, to);
+        } catch (IbatunException e) {
+            fail(e);
+            return;
+        }
+
+        List<Deadline> due = dates.deadlinesBetween(from, to);
+        if (due.isEmpty()) {
+            succeed("Nothing is due then. Enjoy the calm while it lasts.");
+            return;
+        }
+        succeed(numberTaskRows("Here are the deadlines due then:", due, 1));
+    }
+}
@@ -1,9 +1,12 @@
 package ibatun.handling;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Consumer;
 
 import ibatun.errors.IbatunException;
+import ibatun.index.DateIndex;
 import ibatun.storage.TaskStore;
 import ibatun.tasks.Event;
 import ibatun.tasks.Task;
@@ -13,17 +16,40 @@ import ibatun.util.DatetimeConverter;
 /**
  * Handles creation of {@code Event} tasks.
  *
+ * <p>
+ * Before an event is added, the {@link DateIndex} is asked for existing events that overlap it, and any found are
+ * listed after the confirmation. Events that merely touch, one ending as the other starts, do not count. With the
+ * {@value #STRICT_OPTION} option, given as the last argument, an overlapping event is refused instead.
+ *
  * @see Event
  */
 final class EventHandler extends Handler {
+    private static final String STRICT_OPTION = "/strict";
+
+    private final DateIndex dates;
+
     /**
-     * Constructs an EventHandler.
+     * Constructs an EventHandler with its own date index.
      *
      * @param store     The task store
      * @param onRespond The consumer function to handle responses
      */
     EventHandler(TaskStore store, Consumer<String> onRespond) {
+        this(store, new DateIndex(store), onRespond);
+    }
+
+    /**
+     * Constructs an EventHandler.
+     *
+     * @param store     The task store
+     * @param dates     The date index over the task store
+     * @param onRespond The consumer function to handle responses
+     */
+    EventHandler(TaskStore store, DateIndex dates, Consumer<String> onRespond) {
         super(store, onRespond);
+        assert dates != null : "DateIndex cannot be null";
+
+        this.dates = dates;
     }
 
     @Override
@@ -33,11 +59,14 @@ final class EventHandler extends Handler {
 
     @Override
     void handle(String[] args) {
-        String[] parts = ArgTools.splitByDelimiters(args, "/from", "/to");
+        // Only a trailing /strict is the option, so the word can still appear in a description
+        boolean isStrict = args.length > 0 && STRICT_OPTION.equals(args[args.length - 1]);
+        String[] eventArgs = isStrict ? Arrays.copyOf(args, args.length - 1) : args;
+        String[] parts = ArgTools.splitByDelimiters(eventArgs, "/from", "/to");
 
         if (parts.length != 3 || parts[0].isBlank() || parts[1].isBlank() || parts[2].isBlank()) {
             fail("The event command requires a description, start date/time, and end date/time.\n\n"
-                    + "Format: event <description> /from <start date/time> /to <end date/time>\n"
+                    + "Format: event <description> /from <start date/time> /to <end date/time> [/strict]\n"
                     + "I cannot guess your plans... yet.");
             return;
         }
@@ -57,6 +86,12 @@ final class EventHandler extends Handler {
             return;
         }
 
+        List<Event> conflicts = conflictsWith(from, to);
+        if (isStrict && !conflicts.isEmpty()) {
+            fail("That event overlaps with:\n" + numberTasks(conflicts) + "\nDrop /strict to add it anyway.");
+            return;
+        }
+
         Task newTask = new Event(parts[0], from, to);
         try {
             store.add(newTask);
@@ -64,7 +99,22 @@ final class EventHandler extends Handler {
             fail(e.getMessage());
             return;
         }
-        succeed("Got it. I've added this event:\n    " + newTask.toString() + "\nCalendar now 1% busier.");
+        String response = "Got it. I've added this event:\n    " + newTask.toString() + "\nCalendar now 1% busier.";
+        if (!conflicts.isEmpty()) {
+            response += "\n\nHeads up, it overlaps with:\n" + numberTasks(conflicts);
+        }
+        succeed(response);
         return;
     }
+
+    /**
+     * Returns the existing events that share more than an end point with the given period.
+     */
+    private List<Event> conflictsWith(LocalDateTime from, LocalDateTime to) {
+        return dates
+                .eventsOverlapping(from, to)
+                .stream()
+                .filter(event -> event.getFrom().isBefore(to) && event.getTo().isAfter(from))
+                .toList();
+    }
 }
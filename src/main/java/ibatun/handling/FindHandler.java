@@ -1,21 +1,82 @@
 package ibatun.handling;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import ibatun.errors.IbatunException;
+import ibatun.index.SearchIndex;
 import ibatun.storage.TaskStore;
 import ibatun.tasks.Task;
+import ibatun.util.EditDistance;
 
 /**
  * Handles the "find" command, which searches for tasks matching given keywords. Uses fuzzy matching with Levenshtein
- * distance to find similar task names.
+ * distance to find similar task names, computed only up to the largest keyword threshold.
+ *
+ * <p>
+ * A {@link SearchIndex} narrows the search to tasks with a word or name within the edit threshold of some keyword.
+ * Only those candidates are scored, in list order, so results and their order match a scan of the whole list.
+ *
+ * <p>
+ * When there are at least {@value #DEFAULT_PARALLEL_THRESHOLD} candidates, or as many as the
+ * {@code ibatun.find.parallelThreshold} system property sets, they are scored in parallel on the common fork/join
+ * pool. Results are ordered by score and then by list position, so ties come out the same either way.
+ *
+ * <p>
+ * With {@code --limit <count>}, and optionally {@code --page <number>}, only one page of the best matches is shown.
+ * The matches up to the end of that page are kept in a bounded heap, so the rest are never sorted or rendered.
+ *
+ * <p>
+ * The ranked matches of the last {@value #CACHE_SIZE} distinct searches are cached along with the store version they
+ * were ranked at, so repeating a search before the list changes does not score any task again.
  */
 final class FindHandler extends Handler {
+    /**
+     * Default number of candidates from which scoring runs in parallel.
+     */
+    static final int DEFAULT_PARALLEL_THRESHOLD = 20_000;
+
+    /**
+     * System property that overrides the number of candidates from which scoring runs in parallel.
+     */
+    private static final String PARALLEL_THRESHOLD_PROPERTY = "ibatun.find.parallelThreshold";
+    private static final String LIMIT_OPTION = "--limit";
+    private static final String PAGE_OPTION = "--page";
+
+    /**
+     * Number of distinct searches whose results are cached.
+     */
+    private static final int CACHE_SIZE = 64;
+
+    private final int parallelThreshold;
+
+    /**
+     * Recently ranked searches by their lowercase keywords, least recently used first.
+     */
+    private final Map<List<String>, RankedMatches> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<String>, RankedMatches> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private long cacheHits;
+    private long cacheMisses;
+
+    /**
+     * Index over the task names, built on the first search so that starting the app stays cheap.
+     */
+    private SearchIndex index;
+
     /**
      * Constructs a FindHandler.
      *
@@ -23,7 +84,21 @@ final class FindHandler extends Handler {
      * @param onRespond The consumer function to handle responses
      */
     FindHandler(TaskStore store, Consumer<String> onRespond) {
+        this(store, onRespond, Integer.getInteger(PARALLEL_THRESHOLD_PROPERTY, DEFAULT_PARALLEL_THRESHOLD));
+    }
+
+    /**
+     * Constructs a FindHandler that scores candidates in parallel from the given number of them.
+     *
+     * @param store             The task store
+     * @param onRespond         The consumer function to handle responses
+     * @param parallelThreshold The smallest number of candidates to score in parallel
+     */
+    FindHandler(TaskStore store, Consumer<String> onRespond, int parallelThreshold) {
         super(store, onRespond);
+        assert parallelThreshold > 0 : "Parallel threshold must be positive";
+
+        this.parallelThreshold = parallelThreshold;
     }
 
     @Override
@@ -33,103 +108,255 @@ final class FindHandler extends Handler {
 
     @Override
     void handle(String[] args) {
-        String[] keywords = Arrays.stream(args).filter(keyword -> !keyword.isBlank()).toArray(String[]::new);
+        List<String> keywordList = new ArrayList<>();
+        int limit = Integer.MAX_VALUE;
+        int page = 1;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                boolean isOption = LIMIT_OPTION.equals(args[i]) || PAGE_OPTION.equals(args[i]);
+                if (isOption && i + 1 == args.length) {
+                    throw new NumberFormatException("Missing value for " + args[i]);
+                }
+                if (LIMIT_OPTION.equals(args[i])) {
+                    limit = Integer.parseInt(args[++i]);
+                } else if (PAGE_OPTION.equals(args[i])) {
+                    page = Integer.parseInt(args[++i]);
+                } else if (!args[i].isBlank()) {
+                    keywordList.add(args[i]);
+                }
+            }
+        } catch (NumberFormatException e) {
+            limit = 0;
+        }
+        if (limit <= 0 || page <= 0 || page > 1 && limit == Integer.MAX_VALUE) {
+            fail("Limits and pages must be positive numbers, and a page needs a limit.\n\n"
+                    + "Format: find <keywords...> [--limit <count> [--page <number>]]");
+            return;
+        }
+        String[] keywords = keywordList.toArray(String[]::new);
         if (keywords.length == 0) {
             fail("Please provide at least one keyword to find. I am good, not psychic.");
             return;
         }
 
-        List<Task> matchedTasks;
+        // Only the best matches up to the end of the requested page need to be kept, and only they get sorted
+        int offset = (int) Math.min((long) (page - 1) * limit, Integer.MAX_VALUE);
+        int keep = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        RankedMatches topMatches;
         try {
-            matchedTasks = store
-                    .list()
-                    .stream()
-                    .map(task -> scoreTask(task, keywords))
-                    .filter(scored -> scored.isSimilar)
-                    .sorted(Comparator.comparingInt(scored -> scored.score))
-                    .map(scored -> scored.task)
-                    .toList();
+            topMatches = rank(keywords, keep);
         } catch (IbatunException e) {
             fail(e);
             return;
         }
 
-        if (matchedTasks.isEmpty()) {
+        if (topMatches.total == 0) {
             succeed("No matching tasks found. The detective shrugs.");
-        } else {
-            String header = "Here are the matching tasks in your list:\n";
-            String body = IntStream
-                    .range(0, matchedTasks.size())
-                    .mapToObj(i -> String.format("    %d. %s", i + 1, matchedTasks.get(i)))
-                    .collect(Collectors.joining("\n"));
-            succeed(header + body + "\n");
+            return;
+        }
+        if (offset >= topMatches.total) {
+            succeed(String.format("There are only %d matching tasks, so page %d is empty. Try an earlier page.",
+                    topMatches.total, page));
+            return;
+        }
+
+        List<Task> matchedTasks = topMatches.tasks.subList(offset, Math.min(keep, topMatches.total));
+        String heading = "Here are the matching tasks in your list:";
+        if (limit != Integer.MAX_VALUE) {
+            heading = String.format("Here are matching tasks %d-%d of %d in your list:", offset + 1,
+                    offset + matchedTasks.size(), topMatches.total);
         }
+        succeed(numberTaskRows(heading, matchedTasks, offset + 1));
     }
 
-    private static ScoredTask scoreTask(Task task, String[] keywords) {
-        String name = task.getName().toLowerCase();
-        String[] words = name.split("\\s+");
+    /**
+     * Returns the best matches for the keywords, from the cache if they were ranked since the store last changed.
+     */
+    private RankedMatches rank(String[] keywords, int keep) throws IbatunException {
+        List<String> key = Arrays.stream(keywords).map(String::toLowerCase).toList();
+        long version = store.getVersion();
+        RankedMatches cached = cache.get(key);
+        if (cached != null && cached.version == version && cached.covers(keep)) {
+            cacheHits++;
+            return cached;
+        }
+        cacheMisses++;
+
+        String[] queries = key.toArray(String[]::new);
+        int[] thresholds = Arrays.stream(queries).mapToInt(FindHandler::threshold).toArray();
+        // Distances beyond every threshold cannot make a task similar or change the order of similar tasks
+        int cutoff = Arrays.stream(thresholds).max().getAsInt();
+        List<Task> tasks = store.list();
+        int[] positions = candidatePositions(queries, thresholds);
+        IntStream stream = Arrays.stream(positions);
+        if (positions.length >= parallelThreshold) {
+            stream = stream.parallel();
+        }
+        TopMatches topMatches = stream
+                .mapToObj(position -> scoreTask(tasks.get(position), position, queries, thresholds, cutoff))
+                .filter(Objects::nonNull)
+                .collect(() -> new TopMatches(keep), TopMatches::offer, TopMatches::merge);
+        RankedMatches ranked = new RankedMatches(version, topMatches.ranked(), topMatches.total);
+        cache.put(key, ranked);
+        return ranked;
+    }
+
+    /**
+     * Returns how many searches were answered from the cache.
+     *
+     * @return The number of cache hits
+     */
+    long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Returns how many searches had to score tasks.
+     *
+     * @return The number of cache misses
+     */
+    long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Returns the list positions of every task that some keyword may match, in ascending order.
+     */
+    private int[] candidatePositions(String[] queries, int[] thresholds) throws IbatunException {
+        if (index == null) {
+            index = new SearchIndex(store);
+        }
+        Set<Task> candidates = new HashSet<>();
+        for (int i = 0; i < queries.length; i++) {
+            candidates.addAll(index.findWithin(queries[i], thresholds[i]));
+        }
+        int[] positions = new int[candidates.size()];
+        int count = 0;
+        for (Task task : candidates) {
+            positions[count++] = store.indexOf(task.getId());
+        }
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    private static int threshold(String query) {
+        return Math.max(1, (int) Math.ceil(query.length() * 0.4));
+    }
+
+    /**
+     * Scores a task against the lowercase queries, returning null if it is not similar to any of them. The task caches
+     * its lowercase name and words, so scoring allocates nothing for tasks that do not match.
+     */
+    private static ScoredTask scoreTask(Task task, int position, String[] queries, int[] thresholds, int cutoff) {
+        String name = task.getNormalizedName();
+        List<String> words = task.getNormalizedWords();
 
         int bestScore = Integer.MAX_VALUE;
         int bestThreshold = Integer.MAX_VALUE;
 
-        for (String keyword : keywords) {
-            String query = keyword.toLowerCase();
-            int threshold = Math.max(1, (int) Math.ceil(query.length() * 0.4));
-            int minDistance = minDistanceToWords(query, words, name);
+        for (int i = 0; i < queries.length; i++) {
+            int minDistance = minDistanceToWords(queries[i], words, name, cutoff);
             if (minDistance < bestScore) {
                 bestScore = minDistance;
-                bestThreshold = threshold;
+                bestThreshold = thresholds[i];
             }
         }
 
-        boolean isSimilar = bestScore <= bestThreshold;
-        return new ScoredTask(task, bestScore, isSimilar);
+        if (bestScore > bestThreshold) {
+            return null;
+        }
+        return new ScoredTask(task, position, bestScore);
     }
 
-    private static int minDistanceToWords(String keyword, String[] words, String fallback) {
-        int best = levenshteinDistance(keyword, fallback);
-        for (String word : words) {
+    /**
+     * Returns the smallest distance from the keyword to the whole name or any of its words, or {@code cutoff + 1} if
+     * every one of them is further away than {@code cutoff}.
+     */
+    private static int minDistanceToWords(String keyword, List<String> words, String fallback, int cutoff) {
+        int best = EditDistance.boundedDistance(keyword, fallback, cutoff);
+        for (int i = 0; i < words.size() && best > 0; i++) {
+            String word = words.get(i);
             if (word.isBlank()) {
                 continue;
             }
-            int distance = levenshteinDistance(keyword, word);
-            if (distance < best) {
-                best = distance;
-            }
+            // Only a strictly closer word matters, so anything at distance best or more can be cut off
+            best = EditDistance.boundedDistance(keyword, word, best - 1);
         }
         return best;
     }
 
-    private static int levenshteinDistance(String a, String b) {
-        int[][] dp = new int[a.length() + 1][b.length() + 1];
-        for (int i = 0; i <= a.length(); i++) {
-            dp[i][0] = i;
-        }
-        for (int j = 0; j <= b.length(); j++) {
-            dp[0][j] = j;
-        }
-        for (int i = 1; i <= a.length(); i++) {
-            for (int j = 1; j <= b.length(); j++) {
-                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
-                int delete = dp[i - 1][j] + 1;
-                int insert = dp[i][j - 1] + 1;
-                int replace = dp[i - 1][j - 1] + cost;
-                dp[i][j] = Math.min(delete, Math.min(insert, replace));
+    /**
+     * Keeps the best similar tasks seen so far, up to a bound, together with how many were seen in total. Tasks rank
+     * by score and then by list position, so the kept tasks do not depend on the order they are offered in.
+     */
+    private static final class TopMatches {
+        private static final Comparator<ScoredTask> RANKING = Comparator
+                .<ScoredTask>comparingInt(scored -> scored.score)
+                .thenComparingInt(scored -> scored.position);
+
+        private final int bound;
+        private final PriorityQueue<ScoredTask> worstFirst = new PriorityQueue<>(RANKING.reversed());
+        private int total;
+
+        private TopMatches(int bound) {
+            this.bound = bound;
+        }
+
+        private void offer(ScoredTask scored) {
+            total++;
+            keep(scored);
+        }
+
+        private void merge(TopMatches other) {
+            total += other.total;
+            other.worstFirst.forEach(this::keep);
+        }
+
+        private void keep(ScoredTask scored) {
+            if (worstFirst.size() < bound) {
+                worstFirst.add(scored);
+            } else if (RANKING.compare(scored, worstFirst.peek()) < 0) {
+                worstFirst.poll();
+                worstFirst.add(scored);
             }
         }
-        return dp[a.length()][b.length()];
+
+        /**
+         * Returns the kept tasks from best to worst.
+         */
+        private List<Task> ranked() {
+            return worstFirst.stream().sorted(RANKING).map(scored -> scored.task).toList();
+        }
+    }
+
+    /**
+     * Holds the best matches of a search, from best to worst, as of a version of the store.
+     */
+    private static final class RankedMatches {
+        private final long version;
+        private final List<Task> tasks;
+        private final int total;
+
+        private RankedMatches(long version, List<Task> tasks, int total) {
+            this.version = version;
+            this.tasks = tasks;
+            this.total = total;
+        }
+
+        private boolean covers(int keep) {
+            return tasks.size() >= Math.min(keep, total);
+        }
     }
 
     private static final class ScoredTask {
         private final Task task;
+        private final int position;
         private final int score;
-        private final boolean isSimilar;
 
-        private ScoredTask(Task task, int score, boolean isSimilar) {
+        private ScoredTask(Task task, int position, int score) {
             this.task = task;
+            this.position = position;
             this.score = score;
-            this.isSimilar = isSimilar;
         }
     }
 }
@@ -1,9 +1,15 @@
 package ibatun.handling;
 
+import java.util.BitSet;
+import java.util.List;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import ibatun.errors.IbatunException;
+import ibatun.errors.IbatunTaskNotFoundException;
 import ibatun.storage.TaskStore;
+import ibatun.tasks.Task;
 
 /**
  * Provides an abstract structure for handling commands and responses.
@@ -42,6 +48,19 @@ abstract class Handler {
         onRespond.accept(message);
     }
 
+    /**
+     * Sends a response made of rows to the response handler. A handler that only takes text receives the whole text.
+     *
+     * @param response The response
+     */
+    protected void succeed(RowResponse response) {
+        if (onRespond instanceof RowResponseConsumer rowConsumer) {
+            rowConsumer.acceptRows(response);
+        } else {
+            onRespond.accept(response.toText());
+        }
+    }
+
     /**
      * Sends a failure message to the response handler.
      *
@@ -60,6 +79,91 @@ abstract class Handler {
         fail(e.getMessage());
     }
 
+    /**
+     * Resolves task references given by the user into list positions. Each argument may hold several references
+     * separated by commas, and each reference is a list number, an inclusive range of list numbers such as
+     * {@code 10-40}, or a stable identifier prefixed with {@code #}.
+     *
+     * @param args The task references
+     * @return The distinct positions of the referenced tasks, in ascending order
+     * @throws NumberFormatException if a reference is malformed, or there are no references at all
+     * @throws IbatunException       if no task matches some reference
+     */
+    protected int[] resolvePositions(String[] args) throws IbatunException {
+        int size = store.list().size();
+        BitSet positions = new BitSet(size);
+        for (String arg : args) {
+            for (String reference : arg.split(",")) {
+                if (reference.isBlank()) {
+                    continue;
+                }
+                int dash = reference.indexOf('-', 1);
+                if (reference.startsWith("#")) {
+                    positions.set(store.indexOf(Long.parseLong(reference.substring(1))));
+                } else if (dash > 0) {
+                    int from = checkPosition(Integer.parseInt(reference.substring(0, dash)) - 1, size);
+                    int to = checkPosition(Integer.parseInt(reference.substring(dash + 1)) - 1, size);
+                    if (to < from) {
+                        throw new NumberFormatException("Range ends before it starts: " + reference);
+                    }
+                    positions.set(from, to + 1);
+                } else {
+                    positions.set(checkPosition(Integer.parseInt(reference) - 1, size));
+                }
+            }
+        }
+        if (positions.isEmpty()) {
+            throw new NumberFormatException("No task numbers given");
+        }
+        return positions.stream().toArray();
+    }
+
+    /**
+     * Describes the tasks at the given positions, one per line.
+     *
+     * @param positions The positions of the tasks
+     * @param separator The text placed between tasks, including the line break and indentation
+     * @return The descriptions of the tasks
+     * @throws IbatunException if there is an error retrieving the tasks
+     */
+    protected String describeTasks(int[] positions, String separator) throws IbatunException {
+        List<Task> tasks = store.list();
+        return IntStream.of(positions).mapToObj(i -> tasks.get(i).toString()).collect(Collectors.joining(separator));
+    }
+
+    /**
+     * Numbers the given tasks from 1, one per line, each followed by its stable identifier.
+     *
+     * @param tasks The tasks to describe
+     * @return The numbered descriptions, ending with a line break
+     */
+    protected static String numberTasks(List<? extends Task> tasks) {
+        return IntStream
+                .range(0, tasks.size())
+                .mapToObj(i -> String.format("    %d. %s  #%d\n", i + 1, tasks.get(i), tasks.get(i).getId()))
+                .collect(Collectors.joining());
+    }
+
+    /**
+     * Numbers the given tasks from the given number, formatting each row only when it is read.
+     *
+     * @param heading     The text shown before the tasks
+     * @param tasks       The tasks to describe, which must not change afterwards
+     * @param firstNumber The number of the first task
+     * @return The numbered descriptions, each followed by its stable identifier
+     */
+    protected static RowResponse numberTaskRows(String heading, List<? extends Task> tasks, int firstNumber) {
+        return new RowResponse(heading, tasks.size(),
+                i -> String.format("    %d. %s  #%d", firstNumber + i, tasks.get(i), tasks.get(i).getId()));
+    }
+
+    private static int checkPosition(int position, int size) throws IbatunTaskNotFoundException {
+        if (position < 0 || position >= size) {
+            throw new IbatunTaskNotFoundException();
+        }
+        return position;
+    }
+
     /**
      * Determines if this handler can process the given command.
      *
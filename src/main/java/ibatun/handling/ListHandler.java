@@ -2,8 +2,6 @@ package ibatun.handling;
 
 import java.util.List;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import ibatun.errors.IbatunException;
 import ibatun.storage.TaskStore;
@@ -30,8 +28,6 @@ final class ListHandler extends Handler {
 
     @Override
     void handle(String[] args) {
-        StringBuilder response = new StringBuilder("Here are the tasks in your list (drumroll):\n");
-
         // Get task list
         List<Task> tasks;
         try {
@@ -47,11 +43,8 @@ final class ListHandler extends Handler {
             return;
         }
 
-        String body = IntStream
-                .range(0, tasks.size())
-                .mapToObj(i -> "    " + (i + 1) + ". " + tasks.get(i))
-                .collect(Collectors.joining("\n"));
-        succeed(response.append(body).toString().trim());
+        // Rows are formatted as they are shown, so only the task references are copied here
+        succeed(numberTaskRows("Here are the tasks in your list (drumroll):", List.copyOf(tasks), 1));
     }
 
 }
@@ -1,11 +1,14 @@
 package ibatun.handling;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 import ibatun.errors.IbatunException;
 import ibatun.storage.TaskStore;
 import ibatun.tasks.Task;
 
 /**
- * Handles the "mark" command, which marks a task as done.
+ * Handles the "mark" command, which marks one or more tasks as done.
  */
 final class MarkHandler extends Handler {
     /**
@@ -25,20 +28,25 @@ final class MarkHandler extends Handler {
 
     @Override
     void handle(String[] args) {
-        if (args.length != 1 || args[0].isBlank()) {
+        if (args.length == 0 || String.join("", args).isBlank()) {
             fail("Please provide a valid task number. I only count on purpose.");
             return;
         }
 
         try {
-            int taskNum = Integer.parseInt(args[0]) - 1;
-            Task t = store.get(taskNum);
-            if (t.isDone()) {
-                fail("This task is already marked as done:\n  " + t.toString());
+            List<Task> tasks = store.list();
+            int[] positions = resolvePositions(args);
+            int[] pending = IntStream.of(positions).filter(i -> !tasks.get(i).isDone()).toArray();
+            if (pending.length == 0) {
+                fail(positions.length == 1
+                        ? "This task is already marked as done:\n  " + tasks.get(positions[0])
+                        : "These tasks are already marked as done. Overachiever.");
                 return;
             }
-            store.modify(taskNum, Task::mark);
-            succeed("Nice! I've marked this task as done:\n  " + t.toString());
+            store.modifyAll(pending, Task::mark);
+            succeed((pending.length == 1
+                    ? "Nice! I've marked this task as done:\n  "
+                    : "Nice! I've marked these tasks as done:\n  ") + describeTasks(pending, "\n  "));
         } catch (NumberFormatException e) {
             fail("Please provide a valid task number. I only count on purpose.");
         } catch (IndexOutOfBoundsException e) {
@@ -0,0 +1,74 @@
+package ibatun.handling;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import ibatun.errors.IbatunException;
+import ibatun.index.DateIndex;
+import ibatun.storage.TaskStore;
+import ibatun.tasks.Deadline;
+import ibatun.tasks.Event;
+import ibatun.tasks.Task;
+
+/**
+ * Handles the "on" command, which lists the deadlines and events on a given day.
+ *
+ * @see DateRanges
+ */
+final class OnHandler extends Handler {
+    private final DateIndex dates;
+
+    /**
+     * Constructs an OnHandler.
+     *
+     * @param store     The task store
+     * @param dates     The date index over the task store
+     * @param onRespond The consumer function to handle responses
+     */
+    OnHandler(TaskStore store, DateIndex dates, Consumer<String> onRespond) {
+        super(store, onRespond);
+        assert dates != null : "DateIndex cannot be null";
+
+        this.dates = dates;
+    }
+
+    @Override
+    boolean canHandle(String command) {
+        return "on".equals(command);
+    }
+
+    @Override
+    void handle(String[] args) {
+        String day = String.join(" ", args);
+        if (day.isBlank()) {
+            fail("Which day? My calendar has a lot of them.\n\nFormat: on <date|today|tomorrow>");
+            return;
+        }
+
+        LocalDateTime from;
+        LocalDateTime to;
+        try {
+            from = DateRanges.start(day);
+            to = DateRanges.end(day);
+        } catch (IbatunException e) {
+            fail(e);
+            return;
+        }
+
+        List<Task> tasks = new ArrayList<>(dates.deadlinesBetween(from, to));
+        tasks.addAll(dates.eventsOverlapping(from, to));
+        if (tasks.isEmpty()) {
+            succeed("Nothing on that day. A rare sight.");
+            return;
+        }
+        tasks.sort(Comparator.comparing(OnHandler::startOf));
+        succeed(numberTaskRows("Here is what is on that day:", tasks, 1));
+    }
+
+    private static LocalDateTime startOf(Task task) {
+        return task instanceof Deadline deadline ? deadline.getBy() : ((Event) task).getFrom();
+    }
+}
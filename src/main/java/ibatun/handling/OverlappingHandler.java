@@ -0,0 +1,67 @@
+package ibatun.handling;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import ibatun.errors.IbatunException;
+import ibatun.index.DateIndex;
+import ibatun.storage.TaskStore;
+import ibatun.tasks.Event;
+import ibatun.util.ArgTools;
+
+/**
+ * Handles the "overlapping" command, which lists the events that overlap a range of dates.
+ *
+ * @see DateRanges
+ */
+final class OverlappingHandler extends Handler {
+    private final DateIndex dates;
+
+    /**
+     * Constructs an OverlappingHandler.
+     *
+     * @param store     The task store
+     * @param dates     The date index over the task store
+     * @param onRespond The consumer function to handle responses
+     */
+    OverlappingHandler(TaskStore store, DateIndex dates, Consumer<String> onRespond) {
+        super(store, onRespond);
+        assert dates != null : "DateIndex cannot be null";
+
+        this.dates = dates;
+    }
+
+    @Override
+    boolean canHandle(String command) {
+        return "overlapping".equals(command);
+    }
+
+    @Override
+    void handle(String[] args) {
+        String[] parts = ArgTools.splitByDelimiters(args, "/to");
+        if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+            fail("The overlapping command needs both ends of the range.\n\n"
+                    + "Format: overlapping <from> /to <to>");
+            return;
+        }
+
+        LocalDateTime from;
+        LocalDateTime to;
+        try {
+            from = DateRanges.start(parts[0]);
+            to = DateRanges.end(parts[1]);
+            DateRanges.checkOrder(from, to);
+        } catch (IbatunException e) {
+            fail(e);
+            return;
+        }
+
+        List<Event> events = dates.eventsOverlapping(from, to);
+        if (events.isEmpty()) {
+            succeed("No events in that range. Your calendar is wide open.");
+            return;
+        }
+        succeed(numberTaskRows("Here are the events in that range:", events, 1));
+    }
+}
@@ -3,6 +3,7 @@ package ibatun.handling;
 import java.util.Arrays;
 import java.util.function.Consumer;
 
+import ibatun.index.DateIndex;
 import ibatun.storage.TaskStore;
 
 /**
@@ -23,10 +24,12 @@ public final class Router {
         assert onRespond != null : "Response handler cannot be null";
 
         this.onRespond = onRespond;
+        DateIndex dates = new DateIndex(store);
         this.handlers = new Handler[] { new TodoHandler(store, onRespond), new DeadlineHandler(store, onRespond),
-            new EventHandler(store, onRespond), new ListHandler(store, onRespond), new MarkHandler(store, onRespond),
-            new UnmarkHandler(store, onRespond), new DeleteHandler(store, onRespond),
-            new FindHandler(store, onRespond) };
+            new EventHandler(store, dates, onRespond), new ListHandler(store, onRespond),
+            new MarkHandler(store, onRespond), new UnmarkHandler(store, onRespond), new DeleteHandler(store, onRespond),
+            new FindHandler(store, onRespond), new DueHandler(store, dates, onRespond),
+            new OnHandler(store, dates, onRespond), new OverlappingHandler(store, dates, onRespond) };
     }
 
     /**
@@ -0,0 +1,98 @@
+package ibatun.handling;
+
+import java.io.IOException;
+import java.util.function.IntFunction;
+
+/**
+ * Represents a response made of a heading followed by numbered rows, such as the tasks listed by "list" or "find".
+ *
+ * <p>
+ * Rows are only formatted when they are read, so a view that shows a few rows at a time never has to build the text of
+ * every row, and {@link #writeTo(Appendable)} streams a long response without holding all of it at once. The tasks
+ * behind the rows are fixed when the response is made; their descriptions are read when a row is formatted.
+ */
+public final class RowResponse {
+    private final String heading;
+    private final int size;
+    private final IntFunction<String> rowFormatter;
+
+    /**
+     * Constructs a RowResponse.
+     *
+     * @param heading      The text shown before the rows, without a trailing line break
+     * @param size         The number of rows
+     * @param rowFormatter The function that formats the row at a given index
+     */
+    public RowResponse(String heading, int size, IntFunction<String> rowFormatter) {
+        assert heading != null : "Heading cannot be null";
+        assert size >= 0 : "Size cannot be negative";
+        assert rowFormatter != null : "Row formatter cannot be null";
+
+        this.heading = heading;
+        this.size = size;
+        this.rowFormatter = rowFormatter;
+    }
+
+    /**
+     * Returns the text shown before the rows.
+     *
+     * @return The heading
+     */
+    public String getHeading() {
+        return heading;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return The number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Formats the row at the given index.
+     *
+     * @param index The index of the row, from 0
+     * @return The text of the row
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String getRow(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Row " + index + " of " + size);
+        }
+        return rowFormatter.apply(index);
+    }
+
+    /**
+     * Writes the heading and every row, one row per line, formatting each row only as it is written. Nothing is
+     * written after the last row.
+     *
+     * @param out The destination to write to
+     * @throws IOException if the destination cannot be written to
+     */
+    public void writeTo(Appendable out) throws IOException {
+        out.append(heading);
+        for (int i = 0; i < size; i++) {
+            out.append('\n').append(getRow(i));
+        }
+    }
+
+    /**
+     * Joins the heading and every row into one text, one row per line.
+     *
+     * <p>
+     * The text grows with the number of rows; prefer {@link #writeTo(Appendable)} or reading rows one at a time when
+     * the response can be long.
+     *
+     * @return The whole response as text
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder(heading);
+        for (int i = 0; i < size; i++) {
+            text.append('\n').append(getRow(i));
+        }
+        return text.toString();
+    }
+}
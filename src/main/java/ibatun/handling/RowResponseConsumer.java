@@ -0,0 +1,19 @@
+package ibatun.handling;
+
+import java.util.function.Consumer;
+
+/**
+ * Receives responses, including responses made of rows that can be shown without joining them into one text.
+ *
+ * <p>
+ * Handlers pass a {@link RowResponse} to {@link #acceptRows(RowResponse)} when their response handler implements this
+ * interface, and the whole text to {@link #accept(Object)} otherwise.
+ */
+public interface RowResponseConsumer extends Consumer<String> {
+    /**
+     * Receives a response made of rows.
+     *
+     * @param response The response
+     */
+    void acceptRows(RowResponse response);
+}
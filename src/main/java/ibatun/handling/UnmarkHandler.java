@@ -1,11 +1,14 @@
 package ibatun.handling;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 import ibatun.errors.IbatunException;
 import ibatun.storage.TaskStore;
 import ibatun.tasks.Task;
 
 /**
- * Handles the "unmark" command, which unmarks a task as not done.
+ * Handles the "unmark" command, which unmarks one or more tasks as not done.
  */
 final class UnmarkHandler extends Handler {
     /**
@@ -25,20 +28,25 @@ final class UnmarkHandler extends Handler {
 
     @Override
     void handle(String[] args) {
-        if (args.length != 1 || args[0].isBlank()) {
+        if (args.length == 0 || String.join("", args).isBlank()) {
             fail("Please provide a valid task number. I only count on purpose.");
             return;
         }
 
         try {
-            int taskNum = Integer.parseInt(args[0]) - 1;
-            Task t = store.get(taskNum);
-            if (!t.isDone()) {
-                fail("This task is already unmarked:\n  " + t.toString());
+            List<Task> tasks = store.list();
+            int[] positions = resolvePositions(args);
+            int[] pending = IntStream.of(positions).filter(i -> tasks.get(i).isDone()).toArray();
+            if (pending.length == 0) {
+                fail(positions.length == 1
+                        ? "This task is already unmarked:\n  " + tasks.get(positions[0])
+                        : "These tasks are already unmarked. Nothing to undo.");
                 return;
             }
-            store.modify(taskNum, Task::unmark);
-            succeed("Okay! I've unmarked this task as done:\n  " + t.toString());
+            store.modifyAll(pending, Task::unmark);
+            succeed((pending.length == 1
+                    ? "Okay! I've unmarked this task as done:\n  "
+                    : "Okay! I've unmarked these tasks as done:\n  ") + describeTasks(pending, "\n  "));
         } catch (NumberFormatException e) {
             fail("Please provide a valid task number. I only count on purpose.");
         } catch (IndexOutOfBoundsException e) {
@@ -0,0 +1,105 @@
+package ibatun.index;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import ibatun.storage.TaskStore;
+import ibatun.storage.TaskStoreListener;
+import ibatun.tasks.Deadline;
+import ibatun.tasks.Event;
+import ibatun.tasks.Task;
+
+/**
+ * Indexes the dates of the tasks in a store for range queries.
+ *
+ * <p>
+ * Deadlines are kept in a sorted map by due date/time, so the deadlines in a range are found in {@code O(log N + K)}
+ * time for {@code K} results. Events are kept in an {@link IntervalTree} by their start and end. Dates never change
+ * once a task is created, so only additions and removals need to be followed.
+ *
+ * <p>
+ * The index is built on the first query, so that starting the app stays cheap, and from then on follows changes to
+ * the store through {@link TaskStoreListener}. It is not thread-safe; it must be used on the thread that changes the
+ * store.
+ */
+public final class DateIndex implements TaskStoreListener {
+    private final TaskStore store;
+    private final NavigableMap<LocalDateTime, List<Deadline>> deadlinesByDue = new TreeMap<>();
+    private final IntervalTree<Event> events = new IntervalTree<>();
+    private boolean isBuilt;
+
+    /**
+     * Constructs a DateIndex over the tasks of a store.
+     *
+     * @param store The task store to index
+     */
+    public DateIndex(TaskStore store) {
+        assert store != null : "TaskStore cannot be null";
+        this.store = store;
+    }
+
+    /**
+     * Finds the deadlines due within a closed range.
+     *
+     * @param from The earliest due date/time to include
+     * @param to   The latest due date/time to include
+     * @return The deadlines, ordered by due date/time
+     */
+    public List<Deadline> deadlinesBetween(LocalDateTime from, LocalDateTime to) {
+        ensureBuilt();
+        List<Deadline> result = new ArrayList<>();
+        if (to.isBefore(from)) {
+            return result;
+        }
+        deadlinesByDue.subMap(from, true, to, true).values().forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * Finds the events that share at least one instant with a closed range.
+     *
+     * @param from The start of the range
+     * @param to   The end of the range
+     * @return The events, ordered by start
+     */
+    public List<Event> eventsOverlapping(LocalDateTime from, LocalDateTime to) {
+        ensureBuilt();
+        return events.overlapping(from, to);
+    }
+
+    private void ensureBuilt() {
+        if (!isBuilt) {
+            isBuilt = true;
+            store.addListener(this);
+        }
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        if (task instanceof Deadline deadline) {
+            deadlinesByDue.computeIfAbsent(deadline.getBy(), by -> new ArrayList<>()).add(deadline);
+        } else if (task instanceof Event event) {
+            events.add(event.getFrom(), event.getTo(), event.getId(), event);
+        }
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        if (task instanceof Deadline deadline) {
+            List<Deadline> due = deadlinesByDue.get(deadline.getBy());
+            if (due != null && due.remove(deadline) && due.isEmpty()) {
+                deadlinesByDue.remove(deadline.getBy());
+            }
+        } else if (task instanceof Event event) {
+            events.remove(event.getFrom(), event.getId());
+        }
+    }
+
+    @Override
+    public void taskModified(Task task) {
+        // Only the name and completion status of a task can change, and neither is indexed here
+    }
+}
@@ -0,0 +1,198 @@
+package ibatun.index;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Stores closed date/time intervals for overlap queries.
+ *
+ * <p>
+ * Intervals are kept in a treap ordered by start time and then by a caller-supplied key, so equal starts are allowed.
+ * Each node also records the latest end time in its subtree. A query skips every subtree whose latest end is before
+ * the query starts, and every right subtree once a start is after the query ends, so it only walks the paths that
+ * lead to overlapping intervals. Random priorities keep the expected depth logarithmic.
+ *
+ * @param <T> The type of value stored with each interval
+ */
+public final class IntervalTree<T> {
+    private final Random random = new Random();
+    private Node<T> root;
+    private int size;
+
+    /**
+     * Adds an interval.
+     *
+     * @param start The start of the interval
+     * @param end   The end of the interval, which must not be before the start
+     * @param key   A key that is unique among intervals with the same start
+     * @param value The value to store with the interval
+     */
+    public void add(LocalDateTime start, LocalDateTime end, long key, T value) {
+        assert !end.isBefore(start) : "Interval cannot end before it starts";
+        root = insert(root, new Node<>(start, end, key, value, random.nextInt()));
+        size++;
+    }
+
+    /**
+     * Removes an interval.
+     *
+     * @param start The start of the interval
+     * @param key   The key the interval was added with
+     * @return true if the interval was found and removed, false otherwise
+     */
+    public boolean remove(LocalDateTime start, long key) {
+        int sizeBefore = size;
+        root = delete(root, start, key);
+        return size < sizeBefore;
+    }
+
+    /**
+     * Finds the intervals that share at least one instant with the given closed interval.
+     *
+     * @param from The start of the query interval
+     * @param to   The end of the query interval
+     * @return The values of the overlapping intervals, ordered by start
+     */
+    public List<T> overlapping(LocalDateTime from, LocalDateTime to) {
+        List<T> result = new ArrayList<>();
+        collectOverlapping(root, from, to, result);
+        return result;
+    }
+
+    /**
+     * Returns the number of intervals stored.
+     *
+     * @return The number of intervals
+     */
+    public int size() {
+        return size;
+    }
+
+    private static <T> void collectOverlapping(Node<T> node, LocalDateTime from, LocalDateTime to, List<T> result) {
+        while (node != null && !node.maxEnd.isBefore(from)) {
+            collectOverlapping(node.left, from, to, result);
+            if (node.start.isAfter(to)) {
+                // Everything to the right starts later still
+                return;
+            }
+            if (!node.end.isBefore(from)) {
+                result.add(node.value);
+            }
+            node = node.right;
+        }
+    }
+
+    private static <T> Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.key, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node<T> delete(Node<T> node, LocalDateTime start, long key) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(start, key, node);
+        if (comparison < 0) {
+            node.left = delete(node.left, start, key);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, start, key);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Joins two treaps where every interval in the first orders before every interval in the second.
+     */
+    private static <T> Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        node.update();
+        left.right = node;
+        left.update();
+        return left;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        node.update();
+        right.left = node;
+        right.update();
+        return right;
+    }
+
+    private static int compare(LocalDateTime start, long key, Node<?> node) {
+        int comparison = start.compareTo(node.start);
+        return comparison != 0 ? comparison : Long.compare(key, node.key);
+    }
+
+    /**
+     * Holds an interval and the latest end time in the subtree rooted at it.
+     */
+    private static final class Node<T> {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final long key;
+        private final T value;
+        private final int priority;
+        private LocalDateTime maxEnd;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(LocalDateTime start, LocalDateTime end, long key, T value, int priority) {
+            this.start = start;
+            this.end = end;
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        private void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd.isAfter(maxEnd)) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd.isAfter(maxEnd)) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+}
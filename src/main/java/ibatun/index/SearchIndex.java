@@ -0,0 +1,280 @@
+package ibatun.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ibatun.storage.TaskStore;
+import ibatun.storage.TaskStoreListener;
+import ibatun.tasks.Task;
+import ibatun.util.EditDistance;
+
+/**
+ * Indexes the names of the tasks in a store for approximate keyword lookup.
+ *
+ * <p>
+ * Every lowercase word of a task name, and the lowercase name as a whole, is a term with a posting of the tasks that
+ * contain it. Words are in turn indexed by their padded character bigrams, each numbered by occurrence so that shared
+ * bigrams are counted as a multiset. A word within edit distance {@code d} of a keyword of length {@code n} shares at
+ * least {@code max(n, m) + 1 - 2d} such bigrams with it, where {@code m} is the word length, so only words that pass
+ * this count and the length filter are compared exactly.
+ *
+ * <p>
+ * The bound is not positive for very short keywords, so words of up to {@value #SHORT_WORD_LENGTH} characters are
+ * also indexed SymSpell-style by every string left after deleting at most {@value #SHORT_WORD_DELETIONS} of their
+ * characters. A word within edit distance {@code d} of a keyword shares such a deletion with one of the keyword's own
+ * deletions of at most {@code d} characters. Only keywords that neither filter covers fall back to comparing the words
+ * of every admissible length. Names of several words are only indexed by length, since keywords are rarely long
+ * enough to come within the threshold of one.
+ *
+ * <p>
+ * The index follows changes to the store through {@link TaskStoreListener} and is not thread-safe; it must be used on
+ * the thread that changes the store.
+ */
+public final class SearchIndex implements TaskStoreListener {
+    private static final char PADDING = '\u0000';
+
+    /**
+     * Longest word that is also indexed by its deletions.
+     */
+    private static final int SHORT_WORD_LENGTH = 5;
+
+    /**
+     * Number of characters deleted from short words to index them.
+     */
+    private static final int SHORT_WORD_DELETIONS = 2;
+
+    private final Map<String, Term> terms = new HashMap<>();
+    private final Map<Long, Set<Term>> wordsByGram = new HashMap<>();
+    private final Map<Integer, Set<Term>> wordsByLength = new HashMap<>();
+    private final Map<String, Set<Term>> shortWordsByDeletion = new HashMap<>();
+    private final Map<Integer, Set<Term>> phrasesByLength = new HashMap<>();
+    private final Map<Task, List<String>> indexedTerms = new IdentityHashMap<>();
+
+    /**
+     * Constructs a SearchIndex over the tasks of a store and keeps it in sync with later changes.
+     *
+     * @param store The task store to index
+     */
+    public SearchIndex(TaskStore store) {
+        assert store != null : "TaskStore cannot be null";
+        store.addListener(this);
+    }
+
+    /**
+     * Returns the terms a task is indexed under: its lowercase name followed by its lowercase words.
+     *
+     * @param task The task
+     * @return The terms, which may repeat
+     */
+    public static List<String> termsOf(Task task) {
+        List<String> words = task.getNormalizedWords();
+        List<String> result = new ArrayList<>(words.size() + 1);
+        result.add(task.getNormalizedName());
+        result.addAll(words);
+        return result;
+    }
+
+    /**
+     * Finds the tasks that have a term within the given edit distance of a keyword.
+     *
+     * @param keyword     The lowercase keyword
+     * @param maxDistance The largest edit distance allowed
+     * @return The matching tasks, in no particular order
+     */
+    public Set<Task> findWithin(String keyword, int maxDistance) {
+        Set<Task> result = new HashSet<>();
+        for (Term term : candidateTerms(keyword, maxDistance)) {
+            if (EditDistance.boundedDistance(keyword, term.text, maxDistance) <= maxDistance) {
+                result.addAll(term.tasks.keySet());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of distinct terms in the index.
+     *
+     * @return The vocabulary size
+     */
+    public int termCount() {
+        return terms.size();
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        List<String> taskTerms = termsOf(task);
+        indexedTerms.put(task, taskTerms);
+        for (String text : taskTerms) {
+            Term term = terms.get(text);
+            if (term == null) {
+                term = new Term(text);
+                terms.put(text, term);
+                if (term.isPhrase) {
+                    phrasesByLength.computeIfAbsent(text.length(), length -> new HashSet<>()).add(term);
+                } else {
+                    wordsByLength.computeIfAbsent(text.length(), length -> new HashSet<>()).add(term);
+                    for (long gram : gramsOf(text)) {
+                        wordsByGram.computeIfAbsent(gram, key -> new HashSet<>()).add(term);
+                    }
+                    if (text.length() <= SHORT_WORD_LENGTH) {
+                        for (String deletion : deletionsOf(text, SHORT_WORD_DELETIONS)) {
+                            shortWordsByDeletion.computeIfAbsent(deletion, key -> new HashSet<>()).add(term);
+                        }
+                    }
+                }
+            }
+            term.tasks.merge(task, 1, Integer::sum);
+        }
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        List<String> taskTerms = indexedTerms.remove(task);
+        if (taskTerms == null) {
+            return;
+        }
+        for (String text : taskTerms) {
+            Term term = terms.get(text);
+            if (term.tasks.merge(task, -1, Integer::sum) > 0) {
+                continue;
+            }
+            term.tasks.remove(task);
+            if (!term.tasks.isEmpty()) {
+                continue;
+            }
+            terms.remove(text);
+            if (term.isPhrase) {
+                removeFrom(phrasesByLength, text.length(), term);
+                continue;
+            }
+            removeFrom(wordsByLength, text.length(), term);
+            for (long gram : gramsOf(text)) {
+                removeFrom(wordsByGram, gram, term);
+            }
+            if (text.length() <= SHORT_WORD_LENGTH) {
+                for (String deletion : deletionsOf(text, SHORT_WORD_DELETIONS)) {
+                    removeFrom(shortWordsByDeletion, deletion, term);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void taskModified(Task task) {
+        List<String> taskTerms = indexedTerms.get(task);
+        // The lowercase name comes first, and a change of case alone leaves the terms as they were
+        if (taskTerms != null && !taskTerms.get(0).equals(task.getNormalizedName())) {
+            taskRemoved(task);
+            taskAdded(task);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Term>> map, K key, Term term) {
+        Set<Term> set = map.get(key);
+        set.remove(term);
+        if (set.isEmpty()) {
+            map.remove(key);
+        }
+    }
+
+    /**
+     * Returns the padded bigrams of a string, each packed with its occurrence number into the high bits.
+     */
+    private static long[] gramsOf(String text) {
+        long[] grams = new long[text.length() + 1];
+        Map<Integer, Integer> occurrences = new HashMap<>();
+        char previous = PADDING;
+        for (int i = 0; i <= text.length(); i++) {
+            char next = i < text.length() ? text.charAt(i) : PADDING;
+            int bigram = previous << 16 | next;
+            long occurrence = occurrences.merge(bigram, 1, Integer::sum);
+            grams[i] = occurrence << 32 | bigram;
+            previous = next;
+        }
+        return grams;
+    }
+
+    /**
+     * Returns every string obtained by deleting at most {@code depth} characters from a string, including the string.
+     */
+    private static Set<String> deletionsOf(String text, int depth) {
+        Set<String> result = new HashSet<>();
+        result.add(text);
+        Set<String> current = result;
+        for (int d = 0; d < depth; d++) {
+            Set<String> next = new HashSet<>();
+            for (String s : current) {
+                for (int i = 0; i < s.length(); i++) {
+                    next.add(s.substring(0, i) + s.substring(i + 1));
+                }
+            }
+            result.addAll(next);
+            current = next;
+        }
+        return result;
+    }
+
+    private List<Term> candidateTerms(String keyword, int maxDistance) {
+        int length = keyword.length();
+        List<Term> candidates = new ArrayList<>();
+        for (int l = Math.max(0, length - maxDistance); l <= length + maxDistance; l++) {
+            candidates.addAll(phrasesByLength.getOrDefault(l, Set.of()));
+        }
+        if (length + 1 - 2 * maxDistance <= 0 && maxDistance <= SHORT_WORD_DELETIONS
+                && length + maxDistance <= SHORT_WORD_LENGTH) {
+            // Words this close share a string left after deleting at most maxDistance characters from each
+            Set<Term> shortWords = new HashSet<>();
+            for (String deletion : deletionsOf(keyword, maxDistance)) {
+                for (Term term : shortWordsByDeletion.getOrDefault(deletion, Set.of())) {
+                    if (Math.abs(term.text.length() - length) <= maxDistance) {
+                        shortWords.add(term);
+                    }
+                }
+            }
+            candidates.addAll(shortWords);
+            return candidates;
+        }
+        if (length + 1 - 2 * maxDistance <= 0) {
+            // Too few bigrams survive that many edits to filter on, so fall back to the length filter alone
+            for (int l = Math.max(0, length - maxDistance); l <= length + maxDistance; l++) {
+                candidates.addAll(wordsByLength.getOrDefault(l, Set.of()));
+            }
+            return candidates;
+        }
+
+        Map<Term, Integer> sharedGrams = new HashMap<>();
+        for (long gram : gramsOf(keyword)) {
+            for (Term term : wordsByGram.getOrDefault(gram, Set.of())) {
+                if (Math.abs(term.text.length() - length) <= maxDistance) {
+                    sharedGrams.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        for (Map.Entry<Term, Integer> entry : sharedGrams.entrySet()) {
+            int required = Math.max(length, entry.getKey().text.length()) + 1 - 2 * maxDistance;
+            if (entry.getValue() >= required) {
+                candidates.add(entry.getKey());
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Holds a distinct term and how many times each task contains it.
+     */
+    private static final class Term {
+        private final String text;
+        private final boolean isPhrase;
+        private final Map<Task, Integer> tasks = new HashMap<>();
+
+        private Term(String text) {
+            this.text = text;
+            this.isPhrase = text.chars().anyMatch(Character::isWhitespace);
+        }
+    }
+}
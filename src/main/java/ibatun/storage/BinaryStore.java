@@ -0,0 +1,358 @@
+package ibatun.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import ibatun.errors.IbatunCorruptedDataException;
+import ibatun.errors.IbatunException;
+import ibatun.errors.IbatunFileException;
+import ibatun.tasks.Deadline;
+import ibatun.tasks.Event;
+import ibatun.tasks.Task;
+import ibatun.tasks.Todo;
+
+/**
+ * Handles storage and retrieval of data in a compact, versioned binary format.
+ *
+ * <p>
+ * A file starts with the magic bytes {@code IBTN}, a format version and the number of tasks. Each task is a type tag
+ * byte, a flags byte, the stable task identifier, the length-prefixed UTF-8 name and its timestamps as epoch seconds,
+ * followed by nanoseconds only when some timestamp of the task has them. Files of version 1, which predate identifiers,
+ * are still read. Snapshots are replaced atomically like those of {@link JsonStore}.
+ */
+public final class BinaryStore extends TaskStore {
+    /**
+     * Current version of the binary format.
+     */
+    static final int FORMAT_VERSION = 2;
+
+    private static final int MAGIC = 0x4942544E; // "IBTN"
+    private static final byte TAG_TODO = 0;
+    private static final byte TAG_DEADLINE = 1;
+    private static final byte TAG_EVENT = 2;
+    private static final int FLAG_DONE = 1;
+    private static final int FLAG_NANOS = 1 << 1;
+    private static final int MAX_NAME_BYTES = 1 << 20;
+
+    private final String targetPath;
+
+    /**
+     * Message about data restored from the backup while loading, or null if the latest snapshot was read.
+     */
+    private final String loadNotice;
+
+    /**
+     * Background writer that coalesces saves, or null if every mutation is saved before it returns.
+     */
+    private final CoalescingWriter writer;
+
+    /**
+     * Constructs a BinaryStore.
+     *
+     * @param targetPath The file path for storing data
+     * @throws IbatunException if there is an error loading data
+     */
+    public BinaryStore(String targetPath) throws IbatunException {
+        this(targetPath, false);
+    }
+
+    /**
+     * Constructs a BinaryStore that can recover from corrupted data.
+     *
+     * @param targetPath         The file path for storing data
+     * @param recoverCorruptData Whether to proceed with the data read so far if parsing fails
+     * @throws IbatunException if there is an error loading data
+     */
+    public BinaryStore(String targetPath, boolean recoverCorruptData) throws IbatunException {
+        this(targetPath, recoverCorruptData, false);
+    }
+
+    /**
+     * Constructs a BinaryStore that optionally saves mutations in the background.
+     *
+     * @param targetPath         The file path for storing data
+     * @param recoverCorruptData Whether to proceed with the data read so far if parsing fails
+     * @param isAsync            Whether to save mutations on a background thread instead of before returning
+     * @throws IbatunException if there is an error loading data
+     */
+    public BinaryStore(String targetPath, boolean recoverCorruptData, boolean isAsync) throws IbatunException {
+        this(targetPath, loadTasks(targetPath, recoverCorruptData), isAsync);
+    }
+
+    private BinaryStore(String targetPath, LoadedTasks loaded, boolean isAsync) {
+        super(loaded.tasks);
+        assert targetPath != null : "Target path cannot be null";
+        assert !targetPath.isBlank() : "Target path cannot be blank";
+        this.targetPath = targetPath;
+        this.loadNotice = loaded.isFromBackup ? SnapshotFiles.RESTORED_NOTICE : null;
+        this.writer = isAsync ? new CoalescingWriter("ibatun-binary-store", this::savePending) : null;
+    }
+
+    @Override
+    public synchronized void add(Task task) throws IbatunException {
+        super.add(task);
+        persist();
+    }
+
+    @Override
+    public synchronized void remove(int index) throws IbatunException {
+        super.remove(index);
+        persist();
+    }
+
+    @Override
+    public synchronized void modify(int index, Consumer<Task> modifier) throws IbatunException {
+        super.modify(index, modifier);
+        persist();
+    }
+
+    @Override
+    public synchronized void removeAll(int[] indices) throws IbatunException {
+        super.removeAll(indices);
+        persist();
+    }
+
+    @Override
+    public synchronized void modifyAll(int[] indices, Consumer<Task> modifier) throws IbatunException {
+        super.modifyAll(indices, modifier);
+        persist();
+    }
+
+    @Override
+    public String getLoadNotice() {
+        return loadNotice;
+    }
+
+    @Override
+    public void flush() throws IbatunException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IbatunException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes tasks to a binary file, replacing it atomically.
+     *
+     * @param filePath The file path
+     * @param tasks    The tasks to write
+     * @throws IOException if the file cannot be written
+     */
+    static void save(Path filePath, List<Task> tasks) throws IOException {
+        SnapshotFiles.write(filePath, channel -> writeTasks(channel, tasks));
+    }
+
+    /**
+     * Reads the tasks of a binary file without opening a store.
+     *
+     * @param targetPath         The file path the data is stored at
+     * @param recoverCorruptData Whether to proceed with the data read so far if parsing fails
+     * @return The tasks read
+     * @throws IbatunException if there is an error loading data
+     */
+    static List<Task> read(String targetPath, boolean recoverCorruptData) throws IbatunException {
+        return loadTasks(targetPath, recoverCorruptData).tasks;
+    }
+
+    private static LoadedTasks loadTasks(String targetPath, boolean recoverCorruptData) throws IbatunException {
+        LoadedTasks loaded = new LoadedTasks();
+        try {
+            Path filePath = Paths.get(targetPath);
+            Path backupPath = SnapshotFiles.backupPath(filePath);
+            if (Files.exists(filePath)) {
+                try {
+                    readTasks(filePath, loaded.tasks);
+                } catch (StreamCorruptedException | EOFException | DateTimeException e) {
+                    if (!Files.exists(backupPath)) {
+                        throw e;
+                    }
+                    loaded.tasks.clear();
+                    readTasks(backupPath, loaded.tasks);
+                    loaded.isFromBackup = true;
+                }
+            } else if (Files.exists(backupPath)) {
+                readTasks(backupPath, loaded.tasks);
+                loaded.isFromBackup = true;
+            }
+        } catch (StreamCorruptedException | EOFException | DateTimeException e) {
+            if (recoverCorruptData) {
+                return loaded;
+            }
+            throw new IbatunCorruptedDataException(
+                    "Stored data looks corrupted. If you continue, existing data will be overwritten.");
+        } catch (InvalidPathException | IOException e) {
+            throw new IbatunFileException("Failed to load data");
+        }
+        return loaded;
+    }
+
+    private static void readTasks(Path filePath, List<Task> tasks) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(filePath)))) {
+            if (in.readInt() != MAGIC) {
+                throw new StreamCorruptedException("Not a task file");
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION && version != 1) {
+                throw new StreamCorruptedException("Unsupported format version: " + version);
+            }
+            int count = in.readInt();
+            if (count < 0) {
+                throw new StreamCorruptedException("Negative task count");
+            }
+            for (int i = 0; i < count; i++) {
+                tasks.add(readTask(in, version));
+            }
+        }
+    }
+
+    private static Task readTask(DataInputStream in, int version) throws IOException {
+        byte tag = in.readByte();
+        int flags = in.readUnsignedByte();
+        long id = version == 1 ? 0 : in.readLong();
+        int nameLength = in.readInt();
+        if (nameLength <= 0 || nameLength > MAX_NAME_BYTES) {
+            throw new StreamCorruptedException("Invalid name length: " + nameLength);
+        }
+        byte[] nameBytes = new byte[nameLength];
+        in.readFully(nameBytes);
+        String name = new String(nameBytes, StandardCharsets.UTF_8);
+        if (name.isBlank()) {
+            throw new StreamCorruptedException("Blank task name");
+        }
+        boolean hasNanos = (flags & FLAG_NANOS) != 0;
+
+        Task task;
+        switch (tag) {
+        case TAG_TODO:
+            task = new Todo(name);
+            break;
+        case TAG_DEADLINE:
+            task = new Deadline(name, readDatetime(in, hasNanos));
+            break;
+        case TAG_EVENT:
+            LocalDateTime from = readDatetime(in, hasNanos);
+            LocalDateTime to = readDatetime(in, hasNanos);
+            if (to.isBefore(from)) {
+                throw new StreamCorruptedException("Event ends before it starts");
+            }
+            task = new Event(name, from, to);
+            break;
+        default:
+            throw new StreamCorruptedException("Unknown task type tag: " + tag);
+        }
+
+        if ((flags & FLAG_DONE) != 0) {
+            task.mark();
+        }
+        if (id > 0) {
+            task.setId(id);
+        }
+        return task;
+    }
+
+    private static LocalDateTime readDatetime(DataInputStream in, boolean hasNanos) throws IOException {
+        long epochSecond = in.readLong();
+        int nano = hasNanos ? in.readInt() : 0;
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    private static long writeTasks(FileChannel channel, List<Task> tasks) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(tasks.size());
+        for (Task task : tasks) {
+            writeTask(out, task);
+        }
+        out.flush();
+        return out.size();
+    }
+
+    private static void writeTask(DataOutputStream out, Task task) throws IOException {
+        LocalDateTime[] timestamps;
+        byte tag;
+        if (task instanceof Deadline deadline) {
+            tag = TAG_DEADLINE;
+            timestamps = new LocalDateTime[] { deadline.getBy() };
+        } else if (task instanceof Event event) {
+            tag = TAG_EVENT;
+            timestamps = new LocalDateTime[] { event.getFrom(), event.getTo() };
+        } else {
+            tag = TAG_TODO;
+            timestamps = new LocalDateTime[0];
+        }
+
+        boolean hasNanos = false;
+        for (LocalDateTime timestamp : timestamps) {
+            hasNanos |= timestamp.getNano() != 0;
+        }
+        int flags = (task.isDone() ? FLAG_DONE : 0) | (hasNanos ? FLAG_NANOS : 0);
+        byte[] nameBytes = task.getName().getBytes(StandardCharsets.UTF_8);
+
+        out.writeByte(tag);
+        out.writeByte(flags);
+        out.writeLong(task.getId());
+        out.writeInt(nameBytes.length);
+        out.write(nameBytes);
+        for (LocalDateTime timestamp : timestamps) {
+            out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+            if (hasNanos) {
+                out.writeInt(timestamp.getNano());
+            }
+        }
+    }
+
+    private void persist() throws IbatunException {
+        if (writer == null) {
+            savePending();
+            return;
+        }
+        writer.schedule();
+        writer.rethrowFailure();
+    }
+
+    private void savePending() throws IbatunException {
+        List<Task> snapshot;
+        synchronized (this) {
+            // The background writer must not iterate the live list while it is being mutated
+            snapshot = writer == null ? tasks : new ArrayList<>(tasks);
+        }
+        try {
+            save(Paths.get(targetPath), snapshot);
+        } catch (InvalidPathException | IOException e) {
+            throw new IbatunFileException("Failed to save data");
+        }
+    }
+
+    /**
+     * Holds the tasks read from disk together with whether they came from the backup.
+     */
+    private static final class LoadedTasks {
+        private List<Task> tasks = new ArrayList<>();
+        private boolean isFromBackup;
+    }
+}
@@ -0,0 +1,134 @@
+package ibatun.storage;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import ibatun.errors.IbatunException;
+import ibatun.errors.IbatunFileException;
+
+/**
+ * Runs a save action on a single background thread, coalescing bursts of requests into one run.
+ *
+ * <p>
+ * A failure on the background thread is kept and rethrown by the next call to {@link #rethrowFailure()},
+ * {@link #flush()} or {@link #close()}.
+ */
+final class CoalescingWriter {
+    /**
+     * Delay after the first request in a burst before the save action runs.
+     */
+    static final long COALESCE_DELAY_MS = 50;
+
+    private final SaveAction action;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean isDirty = new AtomicBoolean();
+    private final AtomicBoolean isScheduled = new AtomicBoolean();
+    private volatile IbatunException failure;
+
+    /**
+     * Constructs a CoalescingWriter.
+     *
+     * @param threadName The name of the background thread
+     * @param action     The save action to run
+     */
+    CoalescingWriter(String threadName, SaveAction action) {
+        assert action != null : "Save action cannot be null";
+
+        this.action = action;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Requests a run of the save action soon, unless one is already pending.
+     */
+    void schedule() {
+        isDirty.set(true);
+        if (isScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::drain, COALESCE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs any pending save action immediately and waits for it to finish. Does nothing if the writer is already
+     * closed, since closing has already run the pending save action.
+     *
+     * @throws IbatunException if the save action failed
+     */
+    void flush() throws IbatunException {
+        if (executor.isShutdown()) {
+            return;
+        }
+        try {
+            executor.submit(this::drain).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IbatunFileException("Interrupted while saving data");
+        } catch (ExecutionException e) {
+            throw new IbatunFileException("Failed to save data");
+        }
+        rethrowFailure();
+    }
+
+    /**
+     * Flushes pending work and stops the background thread. Does nothing if the writer is already closed.
+     *
+     * @throws IbatunException if the save action failed
+     */
+    void close() throws IbatunException {
+        if (executor.isShutdown()) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Throws the last failure from the background thread, if any, and clears it.
+     *
+     * @throws IbatunException if the save action failed since the last check
+     */
+    void rethrowFailure() throws IbatunException {
+        IbatunException e = failure;
+        if (e != null) {
+            failure = null;
+            throw e;
+        }
+    }
+
+    private void drain() {
+        isScheduled.set(false);
+        if (!isDirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            action.run();
+        } catch (IbatunException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new IbatunFileException("Failed to save data");
+        }
+    }
+
+    /**
+     * Represents a save action that may fail.
+     */
+    @FunctionalInterface
+    interface SaveAction {
+        /**
+         * Saves the current state.
+         *
+         * @throws IbatunException if saving fails
+         */
+        void run() throws IbatunException;
+    }
+}
@@ -1,6 +1,15 @@
 package ibatun.storage;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
@@ -10,11 +19,23 @@ import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParser;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 
 import ibatun.errors.IbatunCorruptedDataException;
 import ibatun.errors.IbatunException;
@@ -25,8 +46,23 @@ import ibatun.util.TaskAdapter;
 
 /**
  * Handles storage and retrieval of data in JSON format.
+ *
+ * <p>
+ * By default every mutation rewrites the whole snapshot file. In journaled mode each mutation instead appends a small
+ * record to a journal file next to the snapshot, and the snapshot is only rewritten when the journal grows past
+ * {@link #COMPACT_THRESHOLD} records, when the store is opened, or when it is closed. Snapshots are replaced
+ * atomically, and the previous snapshot is kept as a backup that is read if the current one is missing or corrupted.
+ *
+ * <p>
+ * In asynchronous mode mutations only mark the store dirty, and a background writer saves bursts of changes in one
+ * write. Call {@link #flush()} or {@link #close()} to make sure every change has reached the disk.
  */
 public final class JsonStore extends TaskStore {
+    /**
+     * Number of journal records after which the journal is folded back into the snapshot.
+     */
+    static final int COMPACT_THRESHOLD = 1000;
+
     /**
      * Gson instance for JSON serialisation and deserialisation.
      */
@@ -35,92 +71,552 @@ public final class JsonStore extends TaskStore {
             .registerTypeAdapter(LocalDateTime.class, new DatetimeAdapter())
             .create();
 
+    private static final String JOURNAL_SUFFIX = ".journal";
+
     private final String targetPath;
 
+    /**
+     * Message about data restored from the backup while loading, or null if the latest snapshot was read.
+     */
+    private final String loadNotice;
+
+    /**
+     * Journal for mutation records, or null if every mutation rewrites the snapshot.
+     */
+    private final TaskJournal journal;
+
+    /**
+     * Background writer that coalesces saves, or null if every mutation is saved before it returns.
+     */
+    private final CoalescingWriter writer;
+
+    /**
+     * Journal records that have not been appended to the journal yet.
+     */
+    private final List<String> pendingRecords = new ArrayList<>();
+
+    /**
+     * Whether the next save must rewrite the snapshot because the journal missed some records.
+     */
+    private boolean needsCompaction;
+
     /**
      * Constructs a JsonStore.
      *
      * @param targetPath The file path for storing data
-     * @param onRespond  The callback to respond to the user
      * @throws IbatunException if there is an error loading data
      */
     public JsonStore(String targetPath) throws IbatunException {
-        super(loadTasks(targetPath, false));
-        assert targetPath != null : "Target path cannot be null";
-        assert !targetPath.isBlank() : "Target path cannot be blank";
-        this.targetPath = targetPath;
+        this(targetPath, false);
     }
 
     /**
      * Constructs a JsonStore that can recover from corrupted data.
      *
      * @param targetPath         The file path for storing data
-     * @param recoverCorruptData Whether to proceed with empty data if parsing fails
+     * @param recoverCorruptData Whether to proceed with the data read so far if parsing fails
      * @throws IbatunException if there is an error loading data
      */
     public JsonStore(String targetPath, boolean recoverCorruptData) throws IbatunException {
-        super(loadTasks(targetPath, recoverCorruptData));
+        this(targetPath, recoverCorruptData, false);
+    }
+
+    /**
+     * Constructs a JsonStore that optionally journals mutations instead of rewriting the snapshot each time.
+     *
+     * @param targetPath         The file path for storing data
+     * @param recoverCorruptData Whether to proceed with the data read so far if parsing fails
+     * @param isJournaled        Whether to append mutations to a journal instead of rewriting the snapshot
+     * @throws IbatunException if there is an error loading or compacting data
+     */
+    public JsonStore(String targetPath, boolean recoverCorruptData, boolean isJournaled) throws IbatunException {
+        this(targetPath, recoverCorruptData, isJournaled, false);
+    }
+
+    /**
+     * Constructs a JsonStore that optionally journals mutations and optionally saves them in the background.
+     *
+     * @param targetPath         The file path for storing data
+     * @param recoverCorruptData Whether to proceed with the data read so far if parsing fails
+     * @param isJournaled        Whether to append mutations to a journal instead of rewriting the snapshot
+     * @param isAsync            Whether to save mutations on a background thread instead of before returning
+     * @throws IbatunException if there is an error loading or compacting data
+     */
+    public JsonStore(String targetPath, boolean recoverCorruptData, boolean isJournaled, boolean isAsync)
+            throws IbatunException {
+        this(targetPath, loadTasks(targetPath, recoverCorruptData), isJournaled, isAsync);
+    }
+
+    private JsonStore(String targetPath, LoadedTasks loaded, boolean isJournaled, boolean isAsync)
+            throws IbatunException {
+        super(loaded.tasks);
         assert targetPath != null : "Target path cannot be null";
         assert !targetPath.isBlank() : "Target path cannot be blank";
         this.targetPath = targetPath;
+        this.loadNotice = loaded.isFromBackup ? SnapshotFiles.RESTORED_NOTICE : null;
+        this.journal = isJournaled ? new TaskJournal(journalPath(targetPath), loaded.snapshotChecksum) : null;
+
+        // Fold any journal left by a previous session so appends start from a clean file
+        if (loaded.hasJournal) {
+            compact(tasks);
+        } else if (hasAssignedMissingIds()) {
+            // Journal records refer to identifiers that the snapshot does not have yet
+            needsCompaction = true;
+        }
+        this.writer = isAsync ? new CoalescingWriter("ibatun-json-store", this::savePending) : null;
     }
 
     @Override
-    public void add(Task task) throws IbatunException {
+    public synchronized void add(Task task) throws IbatunException {
         super.add(task);
-        dumpTasks();
+        persist(() -> addRecord(task));
     }
 
     @Override
-    public void remove(int index) throws IbatunException {
+    public synchronized void remove(int index) throws IbatunException {
         super.remove(index);
-        dumpTasks();
+        persist(() -> removeRecord(index));
     }
 
     @Override
-    public void modify(int index, Consumer<Task> modifier) throws IbatunException {
+    public synchronized void modify(int index, Consumer<Task> modifier) throws IbatunException {
         super.modify(index, modifier);
-        dumpTasks();
+        persist(() -> modifyRecord(index, tasks.get(index)));
+    }
+
+    @Override
+    public synchronized void removeAll(int[] indices) throws IbatunException {
+        int[] positions = sortedPositions(indices);
+        if (positions.length == 0) {
+            return;
+        }
+        super.removeAll(positions);
+        persist(() -> removeAllRecord(positions));
     }
 
-    private static List<Task> loadTasks(String targetPath, boolean recoverCorruptData) throws IbatunException {
-        List<Task> tasks = new ArrayList<>();
+    @Override
+    public synchronized void modifyAll(int[] indices, Consumer<Task> modifier) throws IbatunException {
+        int[] positions = sortedPositions(indices);
+        if (positions.length == 0) {
+            return;
+        }
+        super.modifyAll(positions, modifier);
+        persist(() -> modifyAllRecord(positions, tasks));
+    }
+
+    @Override
+    public String getLoadNotice() {
+        return loadNotice;
+    }
+
+    @Override
+    public void flush() throws IbatunException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IbatunException {
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+        } finally {
+            // Runs even if a background save failed, so the journal is folded in and its file released
+            closeJournal();
+        }
+    }
+
+    private void closeJournal() throws IbatunException {
+        if (journal == null) {
+            return;
+        }
+        try {
+            boolean isBehind;
+            synchronized (this) {
+                isBehind = needsCompaction;
+            }
+            if (isBehind || journal.size() > 0) {
+                compact(tasks);
+            }
+        } finally {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                throw new IbatunFileException("Failed to save data");
+            }
+        }
+    }
+
+    /**
+     * Writes tasks to a JSON snapshot file, replacing it atomically.
+     *
+     * @param filePath The file path
+     * @param tasks    The tasks to write
+     * @return The checksum of the written file
+     * @throws IOException if the file cannot be written
+     */
+    static long save(Path filePath, List<Task> tasks) throws IOException {
+        return SnapshotFiles.write(filePath, channel -> writeSnapshot(channel, tasks));
+    }
+
+    /**
+     * Reads the tasks of a JSON snapshot and its journal without opening a store, so neither file is rewritten.
+     *
+     * @param targetPath         The file path the data is stored at
+     * @param recoverCorruptData Whether to proceed with the data read so far if parsing fails
+     * @return The tasks read
+     * @throws IbatunException if there is an error loading data
+     */
+    static List<Task> read(String targetPath, boolean recoverCorruptData) throws IbatunException {
+        return loadTasks(targetPath, recoverCorruptData).tasks;
+    }
+
+    private static LoadedTasks loadTasks(String targetPath, boolean recoverCorruptData) throws IbatunException {
+        LoadedTasks loaded = new LoadedTasks();
         // Load existing data
         try {
             Path filePath = Paths.get(targetPath);
-            if (Files.exists(filePath)) {
-                String content = Files.readString(filePath);
-                if (!content.isBlank()) {
-                    List<Task> loaded = gson.fromJson(content, new TypeToken<List<Task>>() {
-                    }.getType());
-                    if (loaded != null) {
-                        tasks = loaded;
-                    }
-                }
+            Path journalPath = journalPath(targetPath);
+            loaded.hasJournal = Files.exists(journalPath);
+            readSnapshotOrBackup(filePath, loaded);
+
+            for (String record : TaskJournal.readRecords(journalPath, loaded.snapshotChecksum)) {
+                replay(loaded.tasks, record);
             }
-        } catch (DateTimeParseException | JsonParseException e) {
+        } catch (DateTimeParseException | JsonParseException | IllegalStateException | MalformedJsonException
+                | EOFException e) {
             if (recoverCorruptData) {
-                return tasks;
+                return loaded;
             }
             throw new IbatunCorruptedDataException(
                     "Stored data looks corrupted. If you continue, existing data will be overwritten.");
         } catch (InvalidPathException | IOException e) {
             throw new IbatunFileException("Failed to load data");
         }
-        return tasks;
+        return loaded;
     }
 
-    private void dumpTasks() throws IbatunException {
+    /**
+     * Reads the snapshot file, falling back to the previous generation if it is missing or unreadable. The journal
+     * names the checksum of the latest snapshot, so after a fallback its records no longer apply and are dropped.
+     *
+     * @param filePath The snapshot file path
+     * @param loaded   The holder to read the tasks into
+     * @throws IOException if the file cannot be read or is not valid JSON
+     */
+    private static void readSnapshotOrBackup(Path filePath, LoadedTasks loaded) throws IOException {
+        Path backupPath = SnapshotFiles.backupPath(filePath);
+        if (!Files.exists(filePath)) {
+            if (Files.exists(backupPath)) {
+                loaded.snapshotChecksum = readSnapshot(backupPath, loaded.tasks);
+                loaded.isFromBackup = true;
+            }
+            return;
+        }
+
         try {
-            Path filePath = Paths.get(targetPath);
-            Path parentDir = filePath.getParent();
-            if (parentDir != null) {
-                Files.createDirectories(parentDir);
+            loaded.snapshotChecksum = readSnapshot(filePath, loaded.tasks);
+        } catch (DateTimeParseException | JsonParseException | IllegalStateException | MalformedJsonException
+                | EOFException e) {
+            if (!Files.exists(backupPath)) {
+                throw e;
+            }
+            loaded.tasks.clear();
+            loaded.snapshotChecksum = readSnapshot(backupPath, loaded.tasks);
+            loaded.isFromBackup = true;
+        }
+    }
+
+    /**
+     * Reads the tasks of a snapshot file one element at a time into the given list.
+     *
+     * @param filePath The snapshot file path
+     * @param tasks    The list to add the tasks to
+     * @return The checksum of the snapshot file
+     * @throws IOException if the file cannot be read or is not valid JSON
+     */
+    private static long readSnapshot(Path filePath, List<Task> tasks) throws IOException {
+        CheckedInputStream input = new CheckedInputStream(Files.newInputStream(filePath), new CRC32());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (!skipToContent(reader)) {
+                return input.getChecksum().getValue();
+            }
+
+            JsonReader jsonReader = gson.newJsonReader(reader);
+            jsonReader.setStrictness(Strictness.LENIENT);
+            if (jsonReader.peek() == JsonToken.NULL) {
+                jsonReader.nextNull();
+            } else {
+                jsonReader.beginArray();
+                while (jsonReader.hasNext()) {
+                    Task task = gson.fromJson(jsonReader, Task.class);
+                    if (task != null) {
+                        tasks.add(task);
+                    }
+                }
+                jsonReader.endArray();
+            }
+            if (jsonReader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonParseException("Unexpected content after task list");
+            }
+
+            // Drain the rest so the checksum covers the whole file
+            while (reader.read() >= 0) {
+                continue;
+            }
+            return input.getChecksum().getValue();
+        }
+    }
+
+    private static boolean skipToContent(BufferedReader reader) throws IOException {
+        while (true) {
+            reader.mark(1);
+            int c = reader.read();
+            if (c < 0) {
+                return false;
+            }
+            if (!Character.isWhitespace(c)) {
+                reader.reset();
+                return true;
+            }
+        }
+    }
+
+    private static void replay(List<Task> tasks, String record) {
+        JsonObject object = JsonParser.parseString(record).getAsJsonObject();
+        JsonElement op = object.get("op");
+        if (op == null || op.isJsonNull()) {
+            throw new JsonParseException("Missing 'op' field in journal record");
+        }
+
+        switch (op.getAsString()) {
+        case "add":
+            tasks.add(replayTask(object));
+            break;
+        case "remove":
+            tasks.remove(replayIndex(tasks, object));
+            break;
+        case "modify":
+            tasks.set(replayIndex(tasks, object), replayTask(object));
+            break;
+        case "removeAll":
+            TaskStore.removePositions(tasks, replayIndices(tasks, object));
+            break;
+        case "modifyAll":
+            replayModifyAll(tasks, object);
+            break;
+        default:
+            throw new JsonParseException("Unknown journal operation: " + op.getAsString());
+        }
+    }
+
+    private static int replayIndex(List<Task> tasks, JsonObject record) {
+        JsonElement index = record.get("index");
+        if (index == null || index.isJsonNull()) {
+            throw new JsonParseException("Missing 'index' field in journal record");
+        }
+        int value = index.getAsInt();
+        if (value < 0 || value >= tasks.size()) {
+            throw new JsonParseException("Journal index out of range: " + value);
+        }
+        return value;
+    }
+
+    private static int[] replayIndices(List<Task> tasks, JsonObject record) {
+        JsonElement indices = record.get("indices");
+        if (indices == null || !indices.isJsonArray()) {
+            throw new JsonParseException("Missing 'indices' field in journal record");
+        }
+        JsonArray array = indices.getAsJsonArray();
+        int[] positions = new int[array.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = array.get(i).getAsInt();
+            boolean isAscending = i == 0 || positions[i] > positions[i - 1];
+            if (!isAscending || positions[i] < 0 || positions[i] >= tasks.size()) {
+                throw new JsonParseException("Journal index out of range: " + positions[i]);
+            }
+        }
+        return positions;
+    }
+
+    private static void replayModifyAll(List<Task> tasks, JsonObject record) {
+        int[] positions = replayIndices(tasks, record);
+        JsonElement replacements = record.get("tasks");
+        if (replacements == null || !replacements.isJsonArray()
+                || replacements.getAsJsonArray().size() != positions.length) {
+            throw new JsonParseException("Missing 'tasks' field in journal record");
+        }
+        for (int i = 0; i < positions.length; i++) {
+            Task task = gson.fromJson(replacements.getAsJsonArray().get(i), Task.class);
+            if (task == null) {
+                throw new JsonParseException("Missing task in journal record");
+            }
+            tasks.set(positions[i], task);
+        }
+    }
+
+    private static Task replayTask(JsonObject record) {
+        Task task = gson.fromJson(record.get("task"), Task.class);
+        if (task == null) {
+            throw new JsonParseException("Missing 'task' field in journal record");
+        }
+        return task;
+    }
+
+    private static String addRecord(Task task) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", "add");
+        record.add("task", gson.toJsonTree(task, Task.class));
+        return gson.toJson(record);
+    }
+
+    private static String removeRecord(int index) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", "remove");
+        record.addProperty("index", index);
+        return gson.toJson(record);
+    }
+
+    private static String modifyRecord(int index, Task task) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", "modify");
+        record.addProperty("index", index);
+        record.add("task", gson.toJsonTree(task, Task.class));
+        return gson.toJson(record);
+    }
+
+    private static String removeAllRecord(int[] positions) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", "removeAll");
+        record.add("indices", gson.toJsonTree(positions));
+        return gson.toJson(record);
+    }
+
+    private static String modifyAllRecord(int[] positions, List<Task> tasks) {
+        JsonArray modified = new JsonArray();
+        for (int position : positions) {
+            modified.add(gson.toJsonTree(tasks.get(position), Task.class));
+        }
+        JsonObject record = new JsonObject();
+        record.addProperty("op", "modifyAll");
+        record.add("indices", gson.toJsonTree(positions));
+        record.add("tasks", modified);
+        return gson.toJson(record);
+    }
+
+    private static Path journalPath(String targetPath) {
+        return Paths.get(targetPath + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * Records a mutation that has just been applied to the in-memory list and saves it, or schedules the save.
+     *
+     * @param record Supplies the journal record for the mutation
+     * @throws IbatunException if saving fails, or an earlier background save failed
+     */
+    private void persist(Supplier<String> record) throws IbatunException {
+        if (journal != null) {
+            pendingRecords.add(record.get());
+        }
+        if (writer == null) {
+            savePending();
+            return;
+        }
+        writer.schedule();
+        writer.rethrowFailure();
+    }
+
+    /**
+     * Saves every mutation recorded so far. Runs on the background writer in asynchronous mode.
+     *
+     * @throws IbatunException if saving fails
+     */
+    private void savePending() throws IbatunException {
+        List<String> records;
+        List<Task> snapshot = null;
+        synchronized (this) {
+            records = new ArrayList<>(pendingRecords);
+            pendingRecords.clear();
+            if (journal == null || needsCompaction || journal.size() + records.size() >= COMPACT_THRESHOLD) {
+                // The background writer must not iterate the live list while it is being mutated
+                snapshot = writer == null ? tasks : new ArrayList<>(tasks);
+            }
+        }
+
+        if (journal == null) {
+            dumpTasks(snapshot);
+        } else if (snapshot != null) {
+            compact(snapshot);
+        } else if (!records.isEmpty()) {
+            appendToJournal(records);
+        }
+    }
+
+    private void appendToJournal(List<String> records) throws IbatunException {
+        try {
+            journal.append(records);
+        } catch (IOException e) {
+            synchronized (this) {
+                needsCompaction = true;
+            }
+            throw new IbatunFileException("Failed to save data");
+        }
+    }
+
+    private void compact(List<Task> snapshot) throws IbatunException {
+        long snapshotChecksum = dumpTasks(snapshot);
+        try {
+            if (journal != null) {
+                journal.reset(snapshotChecksum);
+            } else {
+                Files.deleteIfExists(journalPath(targetPath));
             }
-            String json = gson.toJson(tasks);
-            Files.writeString(filePath, json);
         } catch (InvalidPathException | IOException e) {
             throw new IbatunFileException("Failed to save data");
         }
+        synchronized (this) {
+            needsCompaction = false;
+        }
+    }
+
+    private long dumpTasks(List<Task> snapshot) throws IbatunException {
+        try {
+            return save(Paths.get(targetPath), snapshot);
+        } catch (InvalidPathException | IOException e) {
+            throw new IbatunFileException("Failed to save data");
+        }
+    }
+
+    /**
+     * Writes the tasks one element at a time to a snapshot file channel.
+     *
+     * @param channel  The channel to write to
+     * @param snapshot The tasks to write
+     * @return The checksum of the written content
+     * @throws IOException if the content cannot be written
+     */
+    private static long writeSnapshot(FileChannel channel, List<Task> snapshot) throws IOException {
+        CheckedOutputStream output = new CheckedOutputStream(Channels.newOutputStream(channel), new CRC32());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        JsonWriter jsonWriter = gson.newJsonWriter(writer);
+        jsonWriter.beginArray();
+        for (Task task : snapshot) {
+            gson.toJson(task, Task.class, jsonWriter);
+        }
+        jsonWriter.endArray();
+        jsonWriter.flush();
+        return output.getChecksum().getValue();
+    }
+
+    /**
+     * Holds the tasks read from disk together with what is needed to keep appending to the journal.
+     */
+    private static final class LoadedTasks {
+        private List<Task> tasks = new ArrayList<>();
+        private long snapshotChecksum;
+        private boolean hasJournal;
+        private boolean isFromBackup;
     }
 }
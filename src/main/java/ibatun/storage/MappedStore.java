@@ -0,0 +1,459 @@
+package ibatun.storage;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import ibatun.errors.IbatunCorruptedDataException;
+import ibatun.errors.IbatunException;
+import ibatun.errors.IbatunFileException;
+import ibatun.tasks.Deadline;
+import ibatun.tasks.Event;
+import ibatun.tasks.Task;
+import ibatun.tasks.Todo;
+
+/**
+ * Handles storage of data in a memory-mapped file of fixed-size task records.
+ *
+ * <p>
+ * The index file starts with a header holding the magic bytes {@code IBTM}, a format version, the number of tasks,
+ * the generation of the string heap and its committed length. Each task is a fixed-size record holding its done
+ * flag, type, timestamps, stable identifier and the offset and length of its UTF-8 name in a separate heap file.
+ * Marking a task writes a single byte into the mapping, adding one appends to both files and removing one shifts the
+ * records after it. Files of version 1, which predate identifiers, are rewritten in the current layout when opened.
+ *
+ * <p>
+ * Names of removed tasks stay in the heap until the store is next opened with more garbage than live names, at which
+ * point both files are rewritten under a new heap generation so that a crash never pairs an index with the wrong heap.
+ */
+public final class MappedStore extends TaskStore {
+    /**
+     * Current version of the mapped format.
+     */
+    static final int FORMAT_VERSION = 2;
+
+    /**
+     * Size in bytes of the index file header.
+     */
+    static final int HEADER_SIZE = 32;
+
+    /**
+     * Size in bytes of one task record.
+     */
+    static final int RECORD_SIZE = 48;
+
+    private static final int MAGIC = 0x4942544D; // "IBTM"
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_COUNT = 8;
+    private static final int HEADER_GENERATION = 12;
+    private static final int HEADER_HEAP_LENGTH = 16;
+
+    private static final int RECORD_DONE = 0;
+    private static final int RECORD_TYPE = 1;
+    private static final int RECORD_NAME_LENGTH = 4;
+    private static final int RECORD_NAME_OFFSET = 8;
+    private static final int RECORD_FIRST_SECONDS = 16;
+    private static final int RECORD_SECOND_SECONDS = 24;
+    private static final int RECORD_FIRST_NANOS = 32;
+    private static final int RECORD_SECOND_NANOS = 36;
+    private static final int RECORD_ID = 40;
+    private static final int VERSION_1_RECORD_SIZE = 40;
+
+    private static final byte TYPE_TODO = 0;
+    private static final byte TYPE_DEADLINE = 1;
+    private static final byte TYPE_EVENT = 2;
+    private static final int MAX_NAME_BYTES = 1 << 20;
+    private static final int MIN_CAPACITY = 64;
+    private static final long MIN_GARBAGE_BYTES = 4096;
+    private static final String HEAP_SUFFIX = ".heap.";
+
+    private final FileChannel indexChannel;
+    private final FileChannel heapChannel;
+    private MappedByteBuffer index;
+    private int capacity;
+    private long heapLength;
+
+    /**
+     * Constructs a MappedStore.
+     *
+     * @param targetPath The path of the index file
+     * @throws IbatunException if there is an error loading data
+     */
+    public MappedStore(String targetPath) throws IbatunException {
+        this(targetPath, false);
+    }
+
+    /**
+     * Constructs a MappedStore that can recover from corrupted data.
+     *
+     * @param targetPath         The path of the index file
+     * @param recoverCorruptData Whether to proceed with the data read so far if parsing fails
+     * @throws IbatunException if there is an error loading data
+     */
+    public MappedStore(String targetPath, boolean recoverCorruptData) throws IbatunException {
+        this(toPath(targetPath), recoverCorruptData);
+    }
+
+    private MappedStore(Path indexPath, boolean recoverCorruptData) throws IbatunException {
+        this(indexPath, loadIndex(indexPath, recoverCorruptData));
+    }
+
+    private MappedStore(Path indexPath, LoadedIndex loaded) throws IbatunException {
+        super(loaded.tasks);
+        try {
+            int generation = loaded.generation;
+            if (loaded.needsRewrite) {
+                generation = rewrite(indexPath, tasks, generation);
+            }
+            this.heapChannel = FileChannel.open(heapPath(indexPath, generation), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.indexChannel = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.heapLength = loaded.needsRewrite ? heapChannel.size() : loaded.heapLength;
+            mapIndex(Math.max(MIN_CAPACITY, tasks.size() * 2));
+        } catch (IOException e) {
+            throw new IbatunFileException("Failed to load data");
+        }
+    }
+
+    @Override
+    public synchronized void add(Task task) throws IbatunException {
+        super.add(task);
+        try {
+            appendRecord(tasks.size() - 1, task);
+        } catch (IOException e) {
+            throw new IbatunFileException("Failed to save data");
+        }
+    }
+
+    @Override
+    public synchronized void remove(int position) throws IbatunException {
+        super.remove(position);
+        int count = tasks.size();
+        ByteBuffer source = index.duplicate();
+        source.position(recordOffset(position + 1)).limit(recordOffset(count + 1));
+        ByteBuffer destination = index.duplicate();
+        destination.position(recordOffset(position));
+        // Overlapping copies within one buffer behave as if the source were copied out first
+        destination.put(source);
+        index.putInt(HEADER_COUNT, count);
+    }
+
+    @Override
+    public synchronized void modify(int position, Consumer<Task> modifier) throws IbatunException {
+        super.modify(position, modifier);
+        // Only the done flag of a task can change, so one byte carries the whole update
+        index.put(recordOffset(position) + RECORD_DONE, tasks.get(position).isDone() ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public synchronized void removeAll(int[] indices) throws IbatunException {
+        int[] positions = sortedPositions(indices);
+        if (positions.length == 0) {
+            return;
+        }
+        super.removeAll(positions);
+        int oldCount = tasks.size() + positions.length;
+        int write = positions[0];
+        int next = 0;
+        for (int read = positions[0]; read < oldCount; read++) {
+            if (next < positions.length && positions[next] == read) {
+                next++;
+                continue;
+            }
+            index.put(recordOffset(write++), index, recordOffset(read), RECORD_SIZE);
+        }
+        index.putInt(HEADER_COUNT, write);
+    }
+
+    @Override
+    public synchronized void modifyAll(int[] indices, Consumer<Task> modifier) throws IbatunException {
+        int[] positions = sortedPositions(indices);
+        super.modifyAll(positions, modifier);
+        for (int position : positions) {
+            index.put(recordOffset(position) + RECORD_DONE, tasks.get(position).isDone() ? (byte) 1 : (byte) 0);
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IbatunException {
+        try {
+            heapChannel.force(false);
+            index.force();
+        } catch (IOException e) {
+            throw new IbatunFileException("Failed to save data");
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IbatunException {
+        try {
+            flush();
+        } finally {
+            try {
+                heapChannel.close();
+                indexChannel.close();
+            } catch (IOException e) {
+                throw new IbatunFileException("Failed to save data");
+            }
+        }
+    }
+
+    /**
+     * Writes tasks to a fresh index and heap, replacing any existing index atomically.
+     *
+     * @param indexPath The path of the index file
+     * @param tasks     The tasks to write
+     * @throws IOException if the files cannot be written
+     */
+    static void save(Path indexPath, List<Task> tasks) throws IOException {
+        int generation = 0;
+        if (Files.exists(indexPath)) {
+            try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                channel.read(header, 0);
+                if (header.getInt(HEADER_MAGIC) == MAGIC) {
+                    generation = header.getInt(HEADER_GENERATION);
+                }
+            }
+        }
+        rewrite(indexPath, tasks, generation);
+    }
+
+    /**
+     * Returns the path of the string heap belonging to an index file.
+     *
+     * @param indexPath  The path of the index file
+     * @param generation The heap generation recorded in the index header
+     * @return The heap file path
+     */
+    static Path heapPath(Path indexPath, int generation) {
+        return indexPath.resolveSibling(indexPath.getFileName() + HEAP_SUFFIX + generation);
+    }
+
+    private static Path toPath(String targetPath) throws IbatunException {
+        assert targetPath != null : "Target path cannot be null";
+        assert !targetPath.isBlank() : "Target path cannot be blank";
+        try {
+            return Paths.get(targetPath);
+        } catch (InvalidPathException e) {
+            throw new IbatunFileException("Failed to load data");
+        }
+    }
+
+    private static int recordOffset(int position) {
+        return HEADER_SIZE + position * RECORD_SIZE;
+    }
+
+    private static LoadedIndex loadIndex(Path indexPath, boolean recoverCorruptData) throws IbatunException {
+        LoadedIndex loaded = new LoadedIndex();
+        if (!Files.exists(indexPath)) {
+            loaded.needsRewrite = true;
+            return loaded;
+        }
+        try {
+            readIndex(indexPath, loaded);
+        } catch (StreamCorruptedException | DateTimeException e) {
+            if (!recoverCorruptData) {
+                throw new IbatunCorruptedDataException(
+                        "Stored data looks corrupted. If you continue, existing data will be overwritten.");
+            }
+            loaded.needsRewrite = true;
+        } catch (IOException e) {
+            throw new IbatunFileException("Failed to load data");
+        }
+        return loaded;
+    }
+
+    private static void readIndex(Path indexPath, LoadedIndex loaded) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(HEADER_MAGIC) != MAGIC) {
+            throw new StreamCorruptedException("Not a mapped task file");
+        }
+        int version = buffer.getInt(HEADER_VERSION);
+        if (version != FORMAT_VERSION && version != 1) {
+            throw new StreamCorruptedException("Unsupported format version: " + version);
+        }
+        boolean hasIds = version != 1;
+        int recordSize = hasIds ? RECORD_SIZE : VERSION_1_RECORD_SIZE;
+        int count = buffer.getInt(HEADER_COUNT);
+        if (count < 0 || (long) count * recordSize > buffer.limit() - HEADER_SIZE) {
+            throw new StreamCorruptedException("Invalid task count: " + count);
+        }
+        loaded.generation = buffer.getInt(HEADER_GENERATION);
+        loaded.heapLength = buffer.getLong(HEADER_HEAP_LENGTH);
+
+        Path heapPath = heapPath(indexPath, loaded.generation);
+        if (!Files.exists(heapPath)) {
+            throw new StreamCorruptedException("Missing string heap");
+        }
+        byte[] heap = Files.readAllBytes(heapPath);
+        if (loaded.heapLength < 0 || loaded.heapLength > heap.length) {
+            throw new StreamCorruptedException("Invalid heap length: " + loaded.heapLength);
+        }
+
+        long liveBytes = 0;
+        for (int i = 0; i < count; i++) {
+            int offset = HEADER_SIZE + i * recordSize;
+            Task task = readRecord(buffer, offset, heap, loaded.heapLength);
+            long id = hasIds ? buffer.getLong(offset + RECORD_ID) : 0;
+            if (id > 0) {
+                task.setId(id);
+            }
+            liveBytes += task.getName().getBytes(StandardCharsets.UTF_8).length;
+            loaded.tasks.add(task);
+        }
+        long garbageBytes = loaded.heapLength - liveBytes;
+        loaded.needsRewrite = !hasIds || garbageBytes > Math.max(liveBytes, MIN_GARBAGE_BYTES);
+    }
+
+    private static Task readRecord(ByteBuffer buffer, int offset, byte[] heap, long heapLength)
+            throws StreamCorruptedException {
+        int nameLength = buffer.getInt(offset + RECORD_NAME_LENGTH);
+        long nameOffset = buffer.getLong(offset + RECORD_NAME_OFFSET);
+        if (nameLength <= 0 || nameLength > MAX_NAME_BYTES || nameOffset < 0
+                || nameOffset + nameLength > heapLength) {
+            throw new StreamCorruptedException("Invalid name reference");
+        }
+        String name = new String(heap, (int) nameOffset, nameLength, StandardCharsets.UTF_8);
+        if (name.isBlank()) {
+            throw new StreamCorruptedException("Blank task name");
+        }
+
+        Task task;
+        byte type = buffer.get(offset + RECORD_TYPE);
+        switch (type) {
+        case TYPE_TODO:
+            task = new Todo(name);
+            break;
+        case TYPE_DEADLINE:
+            task = new Deadline(name, readDatetime(buffer, offset + RECORD_FIRST_SECONDS, offset + RECORD_FIRST_NANOS));
+            break;
+        case TYPE_EVENT:
+            LocalDateTime from = readDatetime(buffer, offset + RECORD_FIRST_SECONDS, offset + RECORD_FIRST_NANOS);
+            LocalDateTime to = readDatetime(buffer, offset + RECORD_SECOND_SECONDS, offset + RECORD_SECOND_NANOS);
+            if (to.isBefore(from)) {
+                throw new StreamCorruptedException("Event ends before it starts");
+            }
+            task = new Event(name, from, to);
+            break;
+        default:
+            throw new StreamCorruptedException("Unknown task type: " + type);
+        }
+
+        if (buffer.get(offset + RECORD_DONE) != 0) {
+            task.mark();
+        }
+        return task;
+    }
+
+    private static LocalDateTime readDatetime(ByteBuffer buffer, int secondsOffset, int nanosOffset) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(secondsOffset), buffer.getInt(nanosOffset), ZoneOffset.UTC);
+    }
+
+    private static void writeRecord(ByteBuffer buffer, int offset, Task task, long nameOffset, int nameLength) {
+        byte type = TYPE_TODO;
+        LocalDateTime first = null;
+        LocalDateTime second = null;
+        if (task instanceof Deadline deadline) {
+            type = TYPE_DEADLINE;
+            first = deadline.getBy();
+        } else if (task instanceof Event event) {
+            type = TYPE_EVENT;
+            first = event.getFrom();
+            second = event.getTo();
+        }
+
+        buffer.put(offset + RECORD_DONE, task.isDone() ? (byte) 1 : (byte) 0);
+        buffer.put(offset + RECORD_TYPE, type);
+        buffer.putInt(offset + RECORD_NAME_LENGTH, nameLength);
+        buffer.putLong(offset + RECORD_NAME_OFFSET, nameOffset);
+        buffer.putLong(offset + RECORD_FIRST_SECONDS, first == null ? 0 : first.toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(offset + RECORD_SECOND_SECONDS, second == null ? 0 : second.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(offset + RECORD_FIRST_NANOS, first == null ? 0 : first.getNano());
+        buffer.putInt(offset + RECORD_SECOND_NANOS, second == null ? 0 : second.getNano());
+        buffer.putLong(offset + RECORD_ID, task.getId());
+    }
+
+    /**
+     * Writes a compacted heap under the next generation, then atomically swaps in an index that refers to it.
+     */
+    private static int rewrite(Path indexPath, List<Task> tasks, int oldGeneration) throws IOException {
+        int generation = oldGeneration + 1;
+        ByteBuffer records = ByteBuffer.allocate(HEADER_SIZE + tasks.size() * RECORD_SIZE);
+        long heapLength = 0;
+        try (FileChannel heapChannel = FileChannel.open(heapPath(indexPath, generation), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < tasks.size(); i++) {
+                byte[] nameBytes = tasks.get(i).getName().getBytes(StandardCharsets.UTF_8);
+                writeFully(heapChannel, ByteBuffer.wrap(nameBytes), heapLength);
+                writeRecord(records, recordOffset(i), tasks.get(i), heapLength, nameBytes.length);
+                heapLength += nameBytes.length;
+            }
+            heapChannel.force(true);
+        }
+
+        records.putInt(HEADER_MAGIC, MAGIC);
+        records.putInt(HEADER_VERSION, FORMAT_VERSION);
+        records.putInt(HEADER_COUNT, tasks.size());
+        records.putInt(HEADER_GENERATION, generation);
+        records.putLong(HEADER_HEAP_LENGTH, heapLength);
+        SnapshotFiles.write(indexPath, channel -> writeFully(channel, records, 0), false);
+        Files.deleteIfExists(heapPath(indexPath, oldGeneration));
+        return generation;
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    /**
+     * Appends a name to the heap and a record to the index, publishing the record by bumping the count last.
+     */
+    private void appendRecord(int position, Task task) throws IOException {
+        if (position >= capacity) {
+            mapIndex(capacity * 2);
+        }
+        byte[] nameBytes = task.getName().getBytes(StandardCharsets.UTF_8);
+        long nameOffset = heapLength;
+        writeFully(heapChannel, ByteBuffer.wrap(nameBytes), nameOffset);
+        heapLength += nameBytes.length;
+        index.putLong(HEADER_HEAP_LENGTH, heapLength);
+        writeRecord(index, recordOffset(position), task, nameOffset, nameBytes.length);
+        index.putInt(HEADER_COUNT, position + 1);
+    }
+
+    private void mapIndex(int newCapacity) throws IOException {
+        // Mapping beyond the end of the file grows it to fit
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, recordOffset(newCapacity));
+        capacity = newCapacity;
+    }
+
+    /**
+     * Holds the tasks read from an index and what is needed to reopen it.
+     */
+    private static final class LoadedIndex {
+        private final List<Task> tasks = new ArrayList<>();
+        private int generation;
+        private long heapLength;
+        private boolean needsRewrite;
+    }
+}
@@ -0,0 +1,129 @@
+package ibatun.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes snapshot files so that a crash never leaves a partially written snapshot in place.
+ *
+ * <p>
+ * A snapshot is written to a sibling temporary file, forced to disk and then moved over the target. The previous
+ * generation is kept as a backup file that readers can fall back to.
+ */
+final class SnapshotFiles {
+    /**
+     * Message for the user when a store had to load the backup instead of the latest snapshot.
+     */
+    static final String RESTORED_NOTICE = "The latest save looks corrupted, so I restored the one before it. "
+            + "Changes made since then are lost.";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String BACKUP_SUFFIX = ".bak";
+
+    private SnapshotFiles() {
+    }
+
+    /**
+     * Returns the path of the backup kept for a snapshot file.
+     *
+     * @param target The snapshot file path
+     * @return The backup file path
+     */
+    static Path backupPath(Path target) {
+        return target.resolveSibling(target.getFileName() + BACKUP_SUFFIX);
+    }
+
+    /**
+     * Atomically replaces a snapshot file with new content, keeping the previous generation as a backup.
+     *
+     * @param target  The snapshot file path
+     * @param content Writes the new content to the temporary file
+     * @return The value returned by {@code content}
+     * @throws IOException if the snapshot cannot be written
+     */
+    static long write(Path target, ContentWriter content) throws IOException {
+        return write(target, content, true);
+    }
+
+    /**
+     * Atomically replaces a file with new content.
+     *
+     * @param target     The file path
+     * @param content    Writes the new content to the temporary file
+     * @param keepBackup Whether to keep the previous generation as a backup
+     * @return The value returned by {@code content}
+     * @throws IOException if the file cannot be written
+     */
+    static long write(Path target, ContentWriter content, boolean keepBackup) throws IOException {
+        Path parentDir = target.toAbsolutePath().getParent();
+        if (parentDir != null) {
+            Files.createDirectories(parentDir);
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        long result;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            result = content.write(channel);
+            channel.force(true);
+        }
+
+        if (keepBackup && Files.exists(target)) {
+            keepBackup(target);
+        }
+        moveAtomically(temp, target);
+        syncDirectory(parentDir);
+        return result;
+    }
+
+    private static void keepBackup(Path target) throws IOException {
+        Path backup = backupPath(target);
+        Files.deleteIfExists(backup);
+        try {
+            // A hard link keeps the old generation without leaving a moment where the target is missing
+            Files.createLink(backup, target);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(target, backup, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void syncDirectory(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms cannot open directories; the rename is still atomic there
+        }
+    }
+
+    /**
+     * Writes the content of a snapshot to an open file channel.
+     */
+    @FunctionalInterface
+    interface ContentWriter {
+        /**
+         * Writes content to the channel.
+         *
+         * @param channel The channel of the temporary file
+         * @return A value to hand back to the caller, such as a checksum of the content
+         * @throws IOException if the content cannot be written
+         */
+        long write(FileChannel channel) throws IOException;
+    }
+}
@@ -0,0 +1,104 @@
+package ibatun.storage;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.List;
+
+import ibatun.errors.IbatunException;
+import ibatun.errors.IbatunFileException;
+import ibatun.tasks.Task;
+
+/**
+ * Converts task files between the JSON, binary and mapped storage formats.
+ *
+ * <p>
+ * The source file is only read; a JSON journal left by a previous session is replayed but not folded back in.
+ */
+public final class StoreConverter {
+    private StoreConverter() {
+    }
+
+    /**
+     * Converts a JSON task file into a binary task file.
+     *
+     * @param jsonPath           The path of the JSON file to read
+     * @param binaryPath         The path of the binary file to write
+     * @param recoverCorruptData Whether to convert the tasks read so far if the source is corrupted
+     * @return The number of tasks converted
+     * @throws IbatunException if either file cannot be read or written
+     */
+    public static int jsonToBinary(String jsonPath, String binaryPath, boolean recoverCorruptData)
+            throws IbatunException {
+        List<Task> tasks = JsonStore.read(jsonPath, recoverCorruptData);
+        try {
+            BinaryStore.save(Paths.get(binaryPath), tasks);
+        } catch (InvalidPathException | IOException e) {
+            throw new IbatunFileException("Failed to save data");
+        }
+        return tasks.size();
+    }
+
+    /**
+     * Converts a binary task file into a JSON task file.
+     *
+     * @param binaryPath         The path of the binary file to read
+     * @param jsonPath           The path of the JSON file to write
+     * @param recoverCorruptData Whether to convert the tasks read so far if the source is corrupted
+     * @return The number of tasks converted
+     * @throws IbatunException if either file cannot be read or written
+     */
+    public static int binaryToJson(String binaryPath, String jsonPath, boolean recoverCorruptData)
+            throws IbatunException {
+        List<Task> tasks = BinaryStore.read(binaryPath, recoverCorruptData);
+        try {
+            JsonStore.save(Paths.get(jsonPath), tasks);
+        } catch (InvalidPathException | IOException e) {
+            throw new IbatunFileException("Failed to save data");
+        }
+        return tasks.size();
+    }
+
+    /**
+     * Converts a JSON task file into a mapped task file.
+     *
+     * @param jsonPath           The path of the JSON file to read
+     * @param mappedPath         The path of the mapped index file to write
+     * @param recoverCorruptData Whether to convert the tasks read so far if the source is corrupted
+     * @return The number of tasks converted
+     * @throws IbatunException if either file cannot be read or written
+     */
+    public static int jsonToMapped(String jsonPath, String mappedPath, boolean recoverCorruptData)
+            throws IbatunException {
+        List<Task> tasks = JsonStore.read(jsonPath, recoverCorruptData);
+        try {
+            MappedStore.save(Paths.get(mappedPath), tasks);
+        } catch (InvalidPathException | IOException e) {
+            throw new IbatunFileException("Failed to save data");
+        }
+        return tasks.size();
+    }
+
+    /**
+     * Converts a mapped task file into a JSON task file.
+     *
+     * @param mappedPath         The path of the mapped index file to read
+     * @param jsonPath           The path of the JSON file to write
+     * @param recoverCorruptData Whether to convert the tasks read so far if the source is corrupted
+     * @return The number of tasks converted
+     * @throws IbatunException if either file cannot be read or written
+     */
+    public static int mappedToJson(String mappedPath, String jsonPath, boolean recoverCorruptData)
+            throws IbatunException {
+        List<Task> tasks;
+        try (MappedStore store = new MappedStore(mappedPath, recoverCorruptData)) {
+            tasks = store.list();
+        }
+        try {
+            JsonStore.save(Paths.get(jsonPath), tasks);
+        } catch (InvalidPathException | IOException e) {
+            throw new IbatunFileException("Failed to save data");
+        }
+        return tasks.size();
+    }
+}
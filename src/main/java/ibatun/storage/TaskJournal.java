@@ -0,0 +1,142 @@
+package ibatun.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends mutation records to a line-based journal file that sits next to a snapshot file.
+ *
+ * <p>
+ * The first line of a journal is a header naming the checksum of the snapshot it applies to. A journal whose header
+ * does not match the current snapshot has already been folded into it and is ignored. A final line without a trailing
+ * newline is a torn write and is dropped.
+ */
+final class TaskJournal {
+    private static final String HEADER_PREFIX = "{\"snapshot\":";
+
+    private final Path path;
+    private long snapshotChecksum;
+    private int size;
+    private FileChannel channel;
+
+    /**
+     * Constructs an empty TaskJournal.
+     *
+     * @param path             The journal file path
+     * @param snapshotChecksum The checksum of the snapshot the journal applies to
+     */
+    TaskJournal(Path path, long snapshotChecksum) {
+        assert path != null : "Journal path cannot be null";
+
+        this.path = path;
+        this.snapshotChecksum = snapshotChecksum;
+        this.size = 0;
+    }
+
+    /**
+     * Reads the records of a journal that applies to the given snapshot.
+     *
+     * @param path             The journal file path
+     * @param snapshotChecksum The checksum of the current snapshot
+     * @return The records in the order they were appended, or an empty list if the journal is missing or stale
+     * @throws IOException if the journal cannot be read
+     */
+    static List<String> readRecords(Path path, long snapshotChecksum) throws IOException {
+        List<String> records = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return records;
+        }
+
+        String content = Files.readString(path);
+        int lineEnd = content.indexOf('\n');
+        if (lineEnd < 0 || !content.substring(0, lineEnd).equals(header(snapshotChecksum))) {
+            return records;
+        }
+
+        int start = lineEnd + 1;
+        // Lines without a trailing newline were torn by a crash and are dropped
+        for (int end = content.indexOf('\n', start); end >= 0; end = content.indexOf('\n', start)) {
+            if (end > start) {
+                records.add(content.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return records;
+    }
+
+    /**
+     * Returns the number of records in the journal.
+     *
+     * @return The number of records
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends records to the journal in a single write, creating it with a header if needed.
+     *
+     * @param records The serialised records, which must not contain newlines
+     * @throws IOException if the records cannot be written
+     */
+    void append(List<String> records) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        if (channel == null) {
+            Path parentDir = path.getParent();
+            if (parentDir != null) {
+                Files.createDirectories(parentDir);
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            if (channel.size() == 0) {
+                builder.append(header(snapshotChecksum)).append('\n');
+            }
+        }
+        for (String record : records) {
+            assert record.indexOf('\n') < 0 : "Journal records cannot contain newlines";
+            builder.append(record).append('\n');
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        size += records.size();
+    }
+
+    /**
+     * Discards the journal after its records have been folded into a new snapshot.
+     *
+     * @param newSnapshotChecksum The checksum of the new snapshot
+     * @throws IOException if the journal cannot be deleted
+     */
+    void reset(long newSnapshotChecksum) throws IOException {
+        close();
+        Files.deleteIfExists(path);
+        snapshotChecksum = newSnapshotChecksum;
+        size = 0;
+    }
+
+    /**
+     * Releases the journal file handle.
+     *
+     * @throws IOException if the file handle cannot be closed
+     */
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static String header(long snapshotChecksum) {
+        return HEADER_PREFIX + snapshotChecksum + "}";
+    }
+}
@@ -1,8 +1,12 @@
 package ibatun.storage;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import ibatun.errors.IbatunException;
 import ibatun.errors.IbatunTaskNotFoundException;
@@ -10,14 +14,51 @@ import ibatun.tasks.Task;
 
 /**
  * Stores tasks in memory.
+ *
+ * <p>
+ * Tasks are addressed either by their position in the list or by their stable identifier. Every task gets an
+ * identifier when it enters the store, and a hash index maps identifiers to positions. Removing a task only marks the
+ * positions after it as stale; they are recomputed the next time one of them is looked up.
  */
-public class TaskStore {
+public class TaskStore implements AutoCloseable {
     protected final List<Task> tasks;
 
+    private final Map<Long, Integer> positionsById = new HashMap<>();
+    private final List<TaskStoreListener> listeners = new ArrayList<>();
+    private final boolean hasAssignedMissingIds;
+    private long nextId;
+
+    /**
+     * Number of changes made to the tasks so far.
+     */
+    private long version;
+
+    /**
+     * Index of the first position that may be out of date in {@link #positionsById}.
+     */
+    private int stalePositionsFrom;
+
     protected TaskStore(List<Task> tasks) {
         assert tasks != null : "Tasks list cannot be null";
 
         this.tasks = tasks;
+        long maxId = 0;
+        for (Task task : tasks) {
+            maxId = Math.max(maxId, task.getId());
+        }
+        boolean hasAssigned = false;
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            // Data saved before identifiers existed, or copied by hand, may lack them or repeat them
+            if (task.getId() <= 0 || positionsById.containsKey(task.getId())) {
+                task.setId(++maxId);
+                hasAssigned = true;
+            }
+            positionsById.put(task.getId(), i);
+        }
+        this.hasAssignedMissingIds = hasAssigned;
+        this.nextId = maxId + 1;
+        this.stalePositionsFrom = tasks.size();
     }
 
     /**
@@ -34,6 +75,39 @@ public class TaskStore {
         return tasks.get(index);
     }
 
+    /**
+     * Gets a task by its stable identifier.
+     *
+     * @param id The identifier of the task
+     * @return The task with the specified identifier
+     * @throws IbatunException if the task is not found
+     */
+    public Task getById(long id) throws IbatunException {
+        return tasks.get(indexOf(id));
+    }
+
+    /**
+     * Finds the current position of a task by its stable identifier.
+     *
+     * @param id The identifier of the task
+     * @return The index of the task
+     * @throws IbatunException if the task is not found
+     */
+    public int indexOf(long id) throws IbatunException {
+        Integer position = positionsById.get(id);
+        if (position == null) {
+            throw new IbatunTaskNotFoundException();
+        }
+        if (position >= stalePositionsFrom) {
+            for (int i = stalePositionsFrom; i < tasks.size(); i++) {
+                positionsById.put(tasks.get(i).getId(), i);
+            }
+            stalePositionsFrom = tasks.size();
+            position = positionsById.get(id);
+        }
+        return position;
+    }
+
     /**
      * Lists all tasks.
      *
@@ -52,7 +126,19 @@ public class TaskStore {
      */
     public void add(Task task) throws IbatunException {
         assert task != null : "Task to add cannot be null";
+        if (task.getId() <= 0 || positionsById.containsKey(task.getId())) {
+            task.setId(nextId);
+        }
+        nextId = Math.max(nextId, task.getId() + 1);
+        if (stalePositionsFrom == tasks.size()) {
+            stalePositionsFrom++;
+        }
+        version++;
+        positionsById.put(task.getId(), tasks.size());
         tasks.add(task);
+        for (TaskStoreListener listener : listeners) {
+            listener.taskAdded(task);
+        }
     }
 
     /**
@@ -65,7 +151,48 @@ public class TaskStore {
         if (index < 0 || index >= tasks.size()) {
             throw new IbatunTaskNotFoundException();
         }
-        tasks.remove(index);
+        Task removed = tasks.remove(index);
+        positionsById.remove(removed.getId());
+        stalePositionsFrom = Math.min(stalePositionsFrom, index);
+        version++;
+        for (TaskStoreListener listener : listeners) {
+            listener.taskRemoved(removed);
+        }
+    }
+
+    /**
+     * Removes several tasks by their indices as one operation. Later tasks are moved up in a single pass, however many
+     * tasks are removed.
+     *
+     * @param indices The indices of the tasks to remove, in any order and possibly repeated
+     * @throws IbatunException if any index is out of range, in which case no task is removed
+     */
+    public void removeAll(int[] indices) throws IbatunException {
+        int[] positions = sortedPositions(indices);
+        if (positions.length == 0) {
+            return;
+        }
+        List<Task> removed = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            removed.add(tasks.get(position));
+            positionsById.remove(tasks.get(position).getId());
+        }
+        removePositions(tasks, positions);
+        stalePositionsFrom = Math.min(stalePositionsFrom, positions[0]);
+        version++;
+        for (TaskStoreListener listener : listeners) {
+            removed.forEach(listener::taskRemoved);
+        }
+    }
+
+    /**
+     * Removes a task by its stable identifier.
+     *
+     * @param id The identifier of the task to remove
+     * @throws IbatunException if there is an error removing the task
+     */
+    public void removeById(long id) throws IbatunException {
+        remove(indexOf(id));
     }
 
     /**
@@ -82,5 +209,141 @@ public class TaskStore {
         }
         Task task = tasks.get(index);
         modifier.accept(task);
+        version++;
+        for (TaskStoreListener listener : listeners) {
+            listener.taskModified(task);
+        }
+    }
+
+    /**
+     * Modifies several tasks by their indices as one operation.
+     *
+     * @param indices  The indices of the tasks to modify, in any order and possibly repeated
+     * @param modifier The modifier to apply to each task once
+     * @throws IbatunException if any index is out of range, in which case no task is modified
+     */
+    public void modifyAll(int[] indices, Consumer<Task> modifier) throws IbatunException {
+        assert modifier != null : "Modifier cannot be null";
+        int[] positions = sortedPositions(indices);
+        for (int position : positions) {
+            modifier.accept(tasks.get(position));
+        }
+        if (positions.length > 0) {
+            version++;
+        }
+        for (TaskStoreListener listener : listeners) {
+            for (int position : positions) {
+                listener.taskModified(tasks.get(position));
+            }
+        }
+    }
+
+    /**
+     * Modifies a task by its stable identifier using the provided modifier.
+     *
+     * @param id       The identifier of the task to modify
+     * @param modifier The modifier to apply to the task
+     * @throws IbatunException if there is an error modifying the task
+     */
+    public void modifyById(long id, Consumer<Task> modifier) throws IbatunException {
+        modify(indexOf(id), modifier);
+    }
+
+    /**
+     * Sorts indices and drops repeats, checking that every one of them is in range.
+     *
+     * @param indices The indices given to a bulk operation
+     * @return The distinct indices in ascending order
+     * @throws IbatunException if any index is out of range
+     */
+    protected int[] sortedPositions(int[] indices) throws IbatunException {
+        assert indices != null : "Indices cannot be null";
+        int[] positions = IntStream.of(indices).sorted().distinct().toArray();
+        if (positions.length > 0 && (positions[0] < 0 || positions[positions.length - 1] >= tasks.size())) {
+            throw new IbatunTaskNotFoundException();
+        }
+        return positions;
+    }
+
+    /**
+     * Removes tasks at the given positions, moving each remaining task at most once.
+     *
+     * @param tasks     The list to remove from
+     * @param positions Distinct positions in ascending order, all within the list
+     */
+    static void removePositions(List<Task> tasks, int[] positions) {
+        if (positions.length == 0) {
+            return;
+        }
+        int write = positions[0];
+        int next = 0;
+        for (int read = positions[0]; read < tasks.size(); read++) {
+            if (next < positions.length && positions[next] == read) {
+                next++;
+                continue;
+            }
+            tasks.set(write++, tasks.get(read));
+        }
+        tasks.subList(write, tasks.size()).clear();
+    }
+
+    /**
+     * Returns whether tasks were given new identifiers when the store was constructed, so that stores that persist
+     * changes incrementally know to write a full snapshot.
+     *
+     * @return True if any loaded task lacked an identifier or shared one with another task
+     */
+    protected boolean hasAssignedMissingIds() {
+        return hasAssignedMissingIds;
+    }
+
+    /**
+     * Returns the modification version of the store, which grows every time a task is added, removed or modified.
+     * Anything derived from the tasks stays valid for as long as the version is unchanged.
+     *
+     * @return The modification version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Registers a listener for changes to the tasks. The listener is first told about every task already in the store.
+     *
+     * @param listener The listener to register
+     */
+    public void addListener(TaskStoreListener listener) {
+        assert listener != null : "Listener cannot be null";
+        listeners.add(listener);
+        tasks.forEach(listener::taskAdded);
+    }
+
+    /**
+     * Returns a message for the user about how stored data was loaded, such as older data being restored from a
+     * backup because the latest save could not be read.
+     *
+     * @return The message, or null if the data loaded as it was last saved
+     */
+    public String getLoadNotice() {
+        return null;
+    }
+
+    /**
+     * Waits until every change made so far has been persisted.
+     *
+     * @throws IbatunException if there is an error persisting the changes
+     */
+    public void flush() throws IbatunException {
+        // Nothing to persist for an in-memory store
+    }
+
+    /**
+     * Persists any outstanding changes and releases resources held by the store.
+     *
+     * @throws IbatunException if there is an error persisting the changes
+     */
+    @Override
+    public void close() throws IbatunException {
+        // Nothing to release for an in-memory store
     }
 }
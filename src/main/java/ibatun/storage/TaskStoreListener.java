@@ -0,0 +1,33 @@
+package ibatun.storage;
+
+import ibatun.tasks.Task;
+
+/**
+ * Receives notifications of changes to the tasks in a {@link TaskStore}, so that derived structures such as search
+ * indexes can be kept in sync without rescanning the whole list.
+ *
+ * <p>
+ * Notifications are delivered on the thread that changes the store, after the change has been applied in memory.
+ */
+public interface TaskStoreListener {
+    /**
+     * Called after a task has been added to the store, or for every existing task when the listener is registered.
+     *
+     * @param task The added task
+     */
+    void taskAdded(Task task);
+
+    /**
+     * Called after a task has been removed from the store.
+     *
+     * @param task The removed task
+     */
+    void taskRemoved(Task task);
+
+    /**
+     * Called after a modifier has been applied to a task in the store.
+     *
+     * @param task The modified task
+     */
+    void taskModified(Task task);
+}
@@ -1,5 +1,8 @@
 package ibatun.tasks;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Represents a task with a name and completion status.
  *
@@ -13,9 +16,21 @@ public abstract sealed class Task permits Todo, Deadline, Event {
     protected String name;
 
     /**
-     * Indicates whether the task is done.
+     * Indicates whether the task is done. It is the only state that changes after construction, and views may read it
+     * on another thread than the one running commands, so it is volatile.
      */
-    protected boolean isDone;
+    protected volatile boolean isDone;
+
+    /**
+     * Stable identifier of the task, or 0 if no store has assigned one yet.
+     */
+    private long id;
+
+    /**
+     * Lowercase form of the name and its words, computed when first needed. Holding both in one immutable object lets
+     * threads that search in parallel share it safely.
+     */
+    private transient NormalizedName normalizedName;
 
     /**
      * Constructs a Task.
@@ -61,8 +76,87 @@ public abstract sealed class Task permits Todo, Deadline, Event {
         return this.name;
     }
 
+    /**
+     * Gets the name of the task in lowercase.
+     *
+     * @return The lowercase name of the task.
+     */
+    public String getNormalizedName() {
+        return normalized().text;
+    }
+
+    /**
+     * Gets the words of the lowercase name, as separated by whitespace.
+     *
+     * @return The non-empty lowercase words, in order.
+     */
+    public List<String> getNormalizedWords() {
+        return normalized().words;
+    }
+
+    /**
+     * Gets the stable identifier of the task.
+     *
+     * @return The identifier, or 0 if none has been assigned yet.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the stable identifier of the task. Identifiers are assigned by task stores and kept across saves.
+     *
+     * @param id The identifier, which must be positive.
+     */
+    public void setId(long id) {
+        assert id > 0 : "Task id must be positive";
+        this.id = id;
+    }
+
     @Override
     public String toString() {
         return String.format("[%s] %s", (isDone ? 'X' : ' '), name);
     }
+
+    private NormalizedName normalized() {
+        NormalizedName current = normalizedName;
+        if (current == null || current.source != name) {
+            current = new NormalizedName(name);
+            normalizedName = current;
+        }
+        return current;
+    }
+
+    /**
+     * Holds the lowercase form of a name and its words.
+     */
+    private static final class NormalizedName {
+        private final String source;
+        private final String text;
+        private final List<String> words;
+
+        private NormalizedName(String source) {
+            this.source = source;
+            this.text = source.toLowerCase();
+            List<String> result = new ArrayList<>();
+            int start = -1;
+            for (int i = 0; i <= text.length(); i++) {
+                boolean isSeparator = i == text.length() || isSpace(text.charAt(i));
+                if (isSeparator && start >= 0) {
+                    result.add(text.substring(start, i));
+                    start = -1;
+                } else if (!isSeparator && start < 0) {
+                    start = i;
+                }
+            }
+            this.words = List.copyOf(result);
+        }
+
+        /**
+         * Returns whether a character is whitespace in the sense of the regular expression {@code \s}.
+         */
+        private static boolean isSpace(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+        }
+    }
 }
@@ -0,0 +1,88 @@
+package ibatun.ui;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import ibatun.handling.RowResponse;
+
+/**
+ * Represents one message in the conversation, either a command sent by the user or a response from the bot.
+ */
+final class ChatMessage {
+    private final boolean isUser;
+    private final String text;
+    private final RowResponse rows;
+
+    private ChatMessage(boolean isUser, String text, RowResponse rows) {
+        this.isUser = isUser;
+        this.text = text;
+        this.rows = rows;
+    }
+
+    /**
+     * Creates a message sent by the user.
+     *
+     * @param text The command sent
+     * @return The message
+     */
+    static ChatMessage fromUser(String text) {
+        return new ChatMessage(true, text, null);
+    }
+
+    /**
+     * Creates a text response from the bot.
+     *
+     * @param text The response
+     * @return The message
+     */
+    static ChatMessage fromBot(String text) {
+        return new ChatMessage(false, text, null);
+    }
+
+    /**
+     * Creates a response from the bot made of rows.
+     *
+     * @param rows The response
+     * @return The message
+     */
+    static ChatMessage fromBot(RowResponse rows) {
+        return new ChatMessage(false, rows.getHeading(), rows);
+    }
+
+    boolean isUser() {
+        return isUser;
+    }
+
+    /**
+     * Returns the text of the message, or the heading if the message is made of rows.
+     */
+    String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the rows of the message, or null if the message is plain text.
+     */
+    RowResponse getRows() {
+        return rows;
+    }
+
+    /**
+     * Writes the message as text, prefixing commands sent by the user with {@code "> "}. Rows are written one at a
+     * time, so the whole text of a long response is never built.
+     *
+     * @param out The writer to write to
+     * @throws IOException if the message cannot be written
+     */
+    void writeTo(Writer out) throws IOException {
+        if (isUser) {
+            out.write("> ");
+        }
+        if (rows != null) {
+            rows.writeTo(out);
+        } else {
+            out.write(text);
+        }
+        out.write('\n');
+    }
+}
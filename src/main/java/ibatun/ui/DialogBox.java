@@ -1,7 +1,9 @@
 package ibatun.ui;
 
+import ibatun.handling.RowResponse;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
@@ -12,10 +14,51 @@ import javafx.scene.shape.Circle;
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face and a label containing text from
  * the speaker.
+ *
+ * <p>
+ * A response made of rows is shown as its heading above a virtualized {@link ListView}, which only lays out and
+ * formats the rows in view, so a list of tens of thousands of tasks scrolls as smoothly as a short one.
+ *
+ * <p>
+ * A dialog box can be reused for another message with {@link #show(Image, ChatMessage)}, which lets the conversation
+ * view keep one dialog box per visible cell rather than one per message.
  */
 public class DialogBox extends HBox {
-    private ImageView picture;
-    private Label text;
+    private static final double ROW_HEIGHT = 24.0;
+    private static final int VISIBLE_ROWS = 12;
+
+    private final ImageView picture;
+    private final Label text;
+    private final VBox content;
+    private ListView<String> rowView;
+
+    /**
+     * Constructs an empty DialogBox, to be filled in with {@link #show(Image, ChatMessage)}.
+     */
+    DialogBox() {
+        picture = new ImageView();
+        picture.setFitHeight(60.0);
+        picture.setFitWidth(60.0);
+        picture.setPreserveRatio(true);
+        picture.getStyleClass().add("dialog-avatar");
+
+        Circle clip = new Circle(30, 30, 30);
+        picture.setClip(clip);
+
+        text = new Label();
+        text.setWrapText(true);
+        text.setMaxWidth(360.0);
+        text.getStyleClass().add("dialog-label");
+
+        content = new VBox(6.0);
+        content.setMaxWidth(360.0);
+        content.getStyleClass().add("dialog-text");
+
+        this.setSpacing(10.0);
+        this.getStyleClass().add("dialog-box");
+
+        VBox.setVgrow(this, Priority.ALWAYS);
+    }
 
     /**
      * Constructs a DialogBox with the specified picture and message.
@@ -35,33 +78,51 @@ public class DialogBox extends HBox {
      * @param isUser Indicates if the speaker is the user
      */
     public DialogBox(Image pic, String msg, boolean isUser) {
-        picture = new ImageView(pic);
-        picture.setFitHeight(60.0);
-        picture.setFitWidth(60.0);
-        picture.setPreserveRatio(true);
-        picture.getStyleClass().add("dialog-avatar");
-
-        Circle clip = new Circle(30, 30, 30);
-        picture.setClip(clip);
+        this();
+        show(pic, isUser ? ChatMessage.fromUser(msg) : ChatMessage.fromBot(msg));
+    }
 
-        text = new Label(msg);
-        text.setWrapText(true);
-        text.setMaxWidth(360.0);
-        text.getStyleClass().add("dialog-text");
+    /**
+     * Shows a message in this dialog box, replacing the one shown before.
+     *
+     * @param pic     The image of the speaker
+     * @param message The message to be displayed
+     */
+    void show(Image pic, ChatMessage message) {
+        picture.setImage(pic);
+        text.setText(message.getText());
 
-        this.setSpacing(10.0);
-        this.getStyleClass().add("dialog-box");
+        RowResponse rows = message.getRows();
+        if (rows == null) {
+            content.getChildren().setAll(text);
+        } else {
+            if (rowView == null) {
+                rowView = createRowView();
+            }
+            rowView.setItems(new RowList(rows));
+            rowView.setPrefHeight(Math.min(rows.size(), VISIBLE_ROWS) * ROW_HEIGHT + 2);
+            content.getChildren().setAll(text, rowView);
+        }
 
-        if (isUser) {
+        this.getStyleClass().removeAll("dialog-user", "dialog-bot");
+        if (message.isUser()) {
             this.setAlignment(Pos.TOP_RIGHT);
             this.getStyleClass().add("dialog-user");
-            this.getChildren().addAll(text, picture);
+            this.getChildren().setAll(content, picture);
         } else {
             this.setAlignment(Pos.TOP_LEFT);
             this.getStyleClass().add("dialog-bot");
-            this.getChildren().addAll(picture, text);
+            this.getChildren().setAll(picture, content);
         }
+    }
 
-        VBox.setVgrow(this, Priority.ALWAYS);
+    private static ListView<String> createRowView() {
+        ListView<String> view = new ListView<>();
+        view.getStyleClass().add("dialog-rows");
+        view.setFixedCellSize(ROW_HEIGHT);
+        view.setPrefWidth(360.0);
+        view.setMaxWidth(360.0);
+        view.setFocusTraversable(false);
+        return view;
     }
 }
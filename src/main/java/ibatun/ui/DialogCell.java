@@ -0,0 +1,39 @@
+package ibatun.ui;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.image.Image;
+
+/**
+ * Shows a message of the conversation in a cell of the conversation view. Each cell keeps a single {@link DialogBox}
+ * and refills it as the cell is reused for other messages, so the number of dialog boxes, avatars and clips follows
+ * the number of visible cells rather than the length of the conversation.
+ */
+final class DialogCell extends ListCell<ChatMessage> {
+    private final DialogBox dialog = new DialogBox();
+    private final Image userImage;
+    private final Image botImage;
+
+    /**
+     * Constructs a DialogCell.
+     *
+     * @param userImage The avatar shown with messages from the user, shared by all cells
+     * @param botImage  The avatar shown with messages from the bot, shared by all cells
+     */
+    DialogCell(Image userImage, Image botImage) {
+        this.userImage = userImage;
+        this.botImage = botImage;
+        getStyleClass().add("dialog-cell");
+    }
+
+    @Override
+    protected void updateItem(ChatMessage message, boolean empty) {
+        super.updateItem(message, empty);
+        setText(null);
+        if (empty || message == null) {
+            setGraphic(null);
+            return;
+        }
+        dialog.show(message.isUser() ? userImage : botImage, message);
+        setGraphic(dialog);
+    }
+}
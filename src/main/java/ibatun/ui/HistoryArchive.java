@@ -0,0 +1,74 @@
+package ibatun.ui;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import ibatun.errors.IbatunFileException;
+
+/**
+ * Appends messages that have left the conversation view to a plain text file, so a long session keeps its full history
+ * on disk while only the recent messages stay in memory. The file is created on the first append.
+ */
+final class HistoryArchive {
+    private final Path path;
+    private Writer writer;
+
+    /**
+     * Constructs a HistoryArchive that appends to the given file.
+     *
+     * @param path The path of the history file
+     */
+    HistoryArchive(Path path) {
+        assert path != null : "Path cannot be null";
+        this.path = path;
+    }
+
+    /**
+     * Appends messages to the history file, each followed by a blank line.
+     *
+     * @param messages The messages, oldest first
+     * @throws IbatunFileException if the messages cannot be written
+     */
+    void append(List<ChatMessage> messages) throws IbatunFileException {
+        try {
+            if (writer == null) {
+                Path parentDir = path.getParent();
+                if (parentDir != null) {
+                    Files.createDirectories(parentDir);
+                }
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            for (ChatMessage message : messages) {
+                message.writeTo(writer);
+                writer.write('\n');
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new IbatunFileException("Failed to save chat history");
+        }
+    }
+
+    /**
+     * Closes the history file, if it was opened.
+     *
+     * @throws IbatunFileException if the file cannot be closed
+     */
+    void close() throws IbatunFileException {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new IbatunFileException("Failed to save chat history");
+        } finally {
+            writer = null;
+        }
+    }
+}
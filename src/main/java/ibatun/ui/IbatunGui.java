@@ -1,15 +1,31 @@
 package ibatun.ui;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import ibatun.errors.IbatunCorruptedDataException;
 import ibatun.errors.IbatunException;
+import ibatun.handling.RowResponse;
+import ibatun.handling.RowResponseConsumer;
 import ibatun.handling.Router;
+import ibatun.storage.BinaryStore;
 import ibatun.storage.JsonStore;
+import ibatun.storage.MappedStore;
+import ibatun.storage.StoreConverter;
 import ibatun.storage.TaskStore;
 import ibatun.util.UserDataPaths;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.scene.Node;
 import javafx.scene.Scene;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.image.Image;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
@@ -18,40 +34,100 @@ import javafx.stage.Stage;
 /**
  * Provides the graphical user interface for the Ibatun application.
  *
+ * <p>
+ * Commands run one at a time, in the order they were sent, on a single worker thread, so a slow command never
+ * freezes the window. The task store is only used on that thread once the app has started. Responses are passed back
+ * to the JavaFX Application Thread with {@link Platform#runLater(Runnable)}, which keeps them in order.
+ *
  * @author Binh
  * @version 1.0
  */
 public class IbatunGui extends Application {
     private static final String APP_NAME = "Ibatun";
     private static final String DATA_FILE_NAME = "tasks.json";
+    private static final String BINARY_DATA_FILE_NAME = "tasks.bin";
+    private static final String MAPPED_DATA_FILE_NAME = "tasks.map";
+
+    /**
+     * System property that selects the storage format: {@code json} (the default), {@code binary} or {@code mapped}.
+     */
+    private static final String STORAGE_PROPERTY = "ibatun.storage";
+
+    /**
+     * System property that sets how many messages the conversation view keeps.
+     */
+    private static final String HISTORY_LIMIT_PROPERTY = "ibatun.history.limit";
+    private static final int DEFAULT_HISTORY_LIMIT = 500;
+
+    /**
+     * System property that, when {@code true}, appends messages dropped from the conversation view to a history file.
+     */
+    private static final String HISTORY_ARCHIVE_PROPERTY = "ibatun.history.archive";
+    private static final String HISTORY_FILE_NAME = "history.txt";
     private Image ibatunImage;
     private Image userImage;
     private Scene primaryScene;
-    private VBox viewBox;
+    private final ObservableList<ChatMessage> messages = FXCollections.observableArrayList();
+    private final int historyLimit = Math.max(1, Integer.getInteger(HISTORY_LIMIT_PROPERTY, DEFAULT_HISTORY_LIMIT));
+    private HistoryArchive historyArchive;
+    private ListView<ChatMessage> chatView;
+    private final ExecutorService commandRunner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ibatun-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
     private TaskStore store;
     private Router router;
     private InputBar inputBar;
 
+    /**
+     * Number of sent commands that have not finished. Only used on the JavaFX Application Thread.
+     */
+    private int pendingCommands;
+
+    /**
+     * Whether "bye" has been handled and the store closed. Only used on the command thread.
+     */
+    private boolean hasQuit;
+
     /**
      * Constructs an IbatunGui application.
      */
     public IbatunGui() {
+        if (Boolean.getBoolean(HISTORY_ARCHIVE_PROPERTY)) {
+            this.historyArchive = new HistoryArchive(UserDataPaths.getAppDataFile(APP_NAME, HISTORY_FILE_NAME));
+        }
         this.ibatunImage = new Image(IbatunGui.class.getResourceAsStream("/images/ibatunPic.png"));
         this.userImage = new Image(IbatunGui.class.getResourceAsStream("/images/userPic.png"));
-        String dataPath = UserDataPaths.getAppDataFile(APP_NAME, DATA_FILE_NAME).toString();
         try {
-            this.store = new JsonStore(dataPath);
+            this.store = openStore(false);
         } catch (IbatunCorruptedDataException e) {
             handleOnRespond(e.getMessage());
             try {
-                this.store = new JsonStore(dataPath, true);
+                this.store = openStore(true);
             } catch (IbatunException recoveryException) {
                 handleOnRespond(recoveryException.getMessage());
             }
         } catch (IbatunException e) {
             handleOnRespond(e.getMessage());
         }
-        this.router = new Router(store, this::handleOnRespond);
+        if (store != null && store.getLoadNotice() != null) {
+            handleOnRespond(store.getLoadNotice());
+        }
+        this.router = new Router(store, new RowResponseConsumer() {
+            @Override
+            public void accept(String response) {
+                handleOnRespond(response);
+            }
+
+            @Override
+            public void acceptRows(RowResponse response) {
+                // Rows are formatted on the JavaFX Application Thread as they scroll into view, so a task marked by a
+                // later command may show its new state; its place in the list does not change. Completion is the only
+                // state that changes after a task is created, and Task keeps it volatile for this read
+                showMessage(ChatMessage.fromBot(response));
+            }
+        });
     }
 
     @Override
@@ -66,6 +142,43 @@ public class IbatunGui extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        // Let the commands already sent finish before the store is closed on the thread that uses it
+        Future<?> closing = commandRunner.submit(this::closeStore);
+        commandRunner.shutdown();
+        try {
+            closing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            handleOnRespond("Failed to close the task store: " + e.getCause());
+        }
+        closeHistoryArchive();
+    }
+
+    private static TaskStore openStore(boolean recoverCorruptData) throws IbatunException {
+        Path jsonPath = UserDataPaths.getAppDataFile(APP_NAME, DATA_FILE_NAME);
+        String storage = System.getProperty(STORAGE_PROPERTY, "json");
+        if ("mapped".equalsIgnoreCase(storage)) {
+            Path mappedPath = UserDataPaths.getAppDataFile(APP_NAME, MAPPED_DATA_FILE_NAME);
+            if (!Files.exists(mappedPath) && Files.exists(jsonPath)) {
+                StoreConverter.jsonToMapped(jsonPath.toString(), mappedPath.toString(), recoverCorruptData);
+            }
+            return new MappedStore(mappedPath.toString(), recoverCorruptData);
+        }
+        if (!"binary".equalsIgnoreCase(storage)) {
+            return new JsonStore(jsonPath.toString(), recoverCorruptData, true, true);
+        }
+
+        Path binaryPath = UserDataPaths.getAppDataFile(APP_NAME, BINARY_DATA_FILE_NAME);
+        if (!Files.exists(binaryPath) && Files.exists(jsonPath)) {
+            // Carry existing tasks over the first time the binary format is selected
+            StoreConverter.jsonToBinary(jsonPath.toString(), binaryPath.toString(), recoverCorruptData);
+        }
+        return new BinaryStore(binaryPath.toString(), recoverCorruptData, true);
+    }
+
     private void setupStage(Stage stage) {
         // Set up stage properties here
         stage.setTitle("Ibatun - Task Wrangler");
@@ -74,28 +187,26 @@ public class IbatunGui extends Application {
     }
 
     private void setupPrimaryScene() {
-        Node viewBoxNode = setupViewBox();
+        Node chatViewNode = setupChatView();
         Node inputBox = setupInputBox();
-        VBox root = new VBox(viewBoxNode, inputBox);
+        VBox root = new VBox(chatViewNode, inputBox);
         root.getStyleClass().add("app-root");
-        VBox.setVgrow(viewBoxNode, Priority.ALWAYS);
+        VBox.setVgrow(chatViewNode, Priority.ALWAYS);
 
         primaryScene = new Scene(root);
         primaryScene.getStylesheets().add(IbatunGui.class.getResource("/ibatun/ui/ibatun.css").toExternalForm());
     }
 
-    private Node setupViewBox() {
-        viewBox = new VBox();
-        viewBox.getStyleClass().add("chat-view");
-        ScrollPane scrollPane = new ScrollPane(viewBox);
-        scrollPane.getStyleClass().add("chat-scroll");
-        scrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        scrollPane.setFitToWidth(true);
-
-        // Automatically scroll to bottom when content changes
-        viewBox.heightProperty().addListener((observable) -> scrollPane.setVvalue(1.0));
-
-        return scrollPane;
+    private Node setupChatView() {
+        // Cells are reused as the view scrolls, so only the visible messages have dialog boxes
+        chatView = new ListView<>(messages);
+        chatView.getStyleClass().add("chat-view");
+        chatView.setCellFactory(view -> new DialogCell(userImage, ibatunImage));
+        chatView.setFocusTraversable(false);
+        if (!messages.isEmpty()) {
+            chatView.scrollTo(messages.size() - 1);
+        }
+        return chatView;
     }
 
     private Node setupInputBox() {
@@ -104,24 +215,106 @@ public class IbatunGui extends Application {
     }
 
     private void handleOnRespond(String response) {
-        addDialog(response, false);
+        showMessage(ChatMessage.fromBot(response));
     }
 
     private void handleOnSend(String command) {
-        addDialog(command, true);
-        if (!router.route(command.split(" "))) {
-            // Exit
+        addMessage(ChatMessage.fromUser(command));
+        pendingCommands++;
+        inputBar.setBusy(true);
+        commandRunner.execute(() -> runCommand(command));
+    }
+
+    /**
+     * Runs a command on the command thread, then reports back to the JavaFX Application Thread that it finished.
+     */
+    private void runCommand(String command) {
+        boolean shouldContinue = true;
+        try {
+            if (hasQuit) {
+                return;
+            }
+            shouldContinue = router.route(command.split(" "));
+            if (!shouldContinue) {
+                hasQuit = true;
+                closeStore();
+            }
+        } finally {
+            boolean isExiting = !shouldContinue;
+            Platform.runLater(() -> finishCommand(isExiting));
+        }
+    }
+
+    private void finishCommand(boolean isExiting) {
+        pendingCommands--;
+        inputBar.setBusy(pendingCommands > 0);
+        if (isExiting) {
+            closeHistoryArchive();
             System.exit(0);
         }
     }
 
-    private void addDialog(String message, boolean isUser) {
-        DialogBox dialog;
-        if (isUser) {
-            dialog = new DialogBox(userImage, message, true);
+    private void closeStore() {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.close();
+        } catch (IbatunException e) {
+            handleOnRespond(e.getMessage());
+        } finally {
+            store = null;
+        }
+    }
+
+    /**
+     * Shows a message from any thread, passing it to the JavaFX Application Thread if needed.
+     */
+    private void showMessage(ChatMessage message) {
+        if (Platform.isFxApplicationThread()) {
+            addMessage(message);
         } else {
-            dialog = new DialogBox(ibatunImage, message);
+            Platform.runLater(() -> addMessage(message));
+        }
+    }
+
+    /**
+     * Adds a message to the end of the conversation, dropping the oldest messages beyond the history limit, and
+     * scrolls to it. Dropped messages go to the history file if archiving is on.
+     */
+    private void addMessage(ChatMessage message) {
+        messages.add(message);
+        int excess = messages.size() - historyLimit;
+        if (excess > 0) {
+            archive(messages.subList(0, excess));
+            messages.remove(0, excess);
+        }
+        if (chatView != null) {
+            chatView.scrollTo(messages.size() - 1);
+        }
+    }
+
+    private void archive(List<ChatMessage> dropped) {
+        if (historyArchive == null) {
+            return;
+        }
+        try {
+            historyArchive.append(dropped);
+        } catch (IbatunException e) {
+            // Stop archiving rather than report the same failure with every message
+            historyArchive = null;
+            messages.add(ChatMessage.fromBot(e.getMessage()));
+        }
+    }
+
+    private void closeHistoryArchive() {
+        if (historyArchive == null) {
+            return;
+        }
+        try {
+            historyArchive.close();
+        } catch (IbatunException e) {
+            handleOnRespond(e.getMessage());
         }
-        viewBox.getChildren().add(dialog);
     }
 }
@@ -4,16 +4,18 @@ import java.util.function.Consumer;
 
 import javafx.beans.binding.Bindings;
 import javafx.scene.control.Button;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 
 /**
- * Provides an input bar for sending commands to the app.
+ * Provides an input bar for sending commands to the app, with an indicator shown while sent commands are running.
  */
 public class InputBar extends HBox {
     private final TextField userInput;
     private final Button sendButton;
+    private final ProgressIndicator busyIndicator;
 
     /**
      * Constructs an input bar with a callback to handle send events.
@@ -23,10 +25,14 @@ public class InputBar extends HBox {
     public InputBar(Consumer<String> onSend) {
         this.userInput = new TextField();
         this.sendButton = new Button("Send it");
+        this.busyIndicator = new ProgressIndicator();
 
         getStyleClass().add("input-bar");
         userInput.getStyleClass().add("input-field");
         sendButton.getStyleClass().add("send-button");
+        busyIndicator.getStyleClass().add("busy-indicator");
+        busyIndicator.setFocusTraversable(false);
+        setBusy(false);
 
         setSpacing(10.0);
         HBox.setHgrow(userInput, Priority.ALWAYS);
@@ -49,6 +55,17 @@ public class InputBar extends HBox {
         userInput.setOnAction(event -> sendAction.run());
         sendButton.setOnAction(event -> sendAction.run());
 
-        getChildren().addAll(userInput, sendButton);
+        getChildren().addAll(userInput, busyIndicator, sendButton);
+    }
+
+    /**
+     * Shows or hides the indicator that commands are running. Commands can still be sent while it shows; they run
+     * after the ones before them.
+     *
+     * @param isBusy Whether any sent command has not finished
+     */
+    public void setBusy(boolean isBusy) {
+        busyIndicator.setVisible(isBusy);
+        busyIndicator.setManaged(isBusy);
     }
 }
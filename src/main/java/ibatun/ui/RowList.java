@@ -0,0 +1,32 @@
+package ibatun.ui;
+
+import ibatun.handling.RowResponse;
+import javafx.collections.ObservableListBase;
+
+/**
+ * Presents the rows of a response as a read-only observable list. A row is only formatted when a cell asks for it, so
+ * a {@code ListView} over this list only ever formats the rows it lays out.
+ */
+final class RowList extends ObservableListBase<String> {
+    private final RowResponse response;
+
+    /**
+     * Constructs a RowList over the rows of a response.
+     *
+     * @param response The response whose rows are listed
+     */
+    RowList(RowResponse response) {
+        assert response != null : "Response cannot be null";
+        this.response = response;
+    }
+
+    @Override
+    public String get(int index) {
+        return response.getRow(index);
+    }
+
+    @Override
+    public int size() {
+        return response.size();
+    }
+}
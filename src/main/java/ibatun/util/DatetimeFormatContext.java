@@ -0,0 +1,94 @@
+package ibatun.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Formats date/times relative to one day, remembering the strings it has formatted.
+ *
+ * <p>
+ * {@link DatetimeConverter#format(LocalDateTime)} only depends on the current date, so one context serves every
+ * format until midnight. Checking whether the context still applies costs a single clock read, and a date/time seen
+ * before, such as a task shown again when a list is redrawn, is not formatted twice. The day is taken in the system
+ * time zone when the context is created.
+ */
+final class DatetimeFormatContext {
+    /**
+     * Number of formatted strings kept before the cache is emptied.
+     */
+    private static final int MAX_ENTRIES = 8192;
+
+    private static volatile DatetimeFormatContext current = new DatetimeFormatContext(LocalDate.MIN, 0, 0);
+
+    private final LocalDate today;
+    private final long startMillis;
+    private final long endMillis;
+    private final Map<LocalDateTime, String> formatted = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a DatetimeFormatContext.
+     *
+     * @param today       The date to format relative to
+     * @param startMillis The first epoch millisecond of that date
+     * @param endMillis   The first epoch millisecond of the next date
+     */
+    DatetimeFormatContext(LocalDate today, long startMillis, long endMillis) {
+        this.today = today;
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+    }
+
+    /**
+     * Returns the context for today, creating it on the first call of the day.
+     *
+     * @return The context for today
+     */
+    static DatetimeFormatContext current() {
+        DatetimeFormatContext context = current;
+        long millis = System.currentTimeMillis();
+        if (millis < context.startMillis || millis >= context.endMillis) {
+            // Racing threads may both create one; either is correct for today
+            context = forDay(LocalDate.now(), ZoneId.systemDefault());
+            current = context;
+        }
+        return context;
+    }
+
+    /**
+     * Creates a context for a date in a time zone.
+     *
+     * @param today The date to format relative to
+     * @param zone  The time zone the date is in
+     * @return The context
+     */
+    static DatetimeFormatContext forDay(LocalDate today, ZoneId zone) {
+        long start = today.atStartOfDay(zone).toInstant().toEpochMilli();
+        long end = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        return new DatetimeFormatContext(today, start, end);
+    }
+
+    LocalDate getToday() {
+        return today;
+    }
+
+    /**
+     * Formats a date/time relative to this context's date.
+     *
+     * @param dateTime The date/time
+     * @return The formatted date/time
+     */
+    String format(LocalDateTime dateTime) {
+        String text = formatted.get(dateTime);
+        if (text == null) {
+            if (formatted.size() >= MAX_ENTRIES) {
+                formatted.clear();
+            }
+            text = DatetimeConverter.formatRelativeTo(dateTime, today);
+            formatted.put(dateTime, text);
+        }
+        return text;
+    }
+}
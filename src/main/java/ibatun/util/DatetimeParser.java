@@ -0,0 +1,654 @@
+package ibatun.util;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Locale;
+
+/**
+ * Parses the date/time inputs accepted by {@link DatetimeConverter#parse(String)} in a single pass, without throwing
+ * exceptions.
+ *
+ * <p>
+ * The first characters of an input decide which format it can be in: a sign or digits followed by {@code -} and a
+ * digit start an ISO date or a {@code d-M-yyyy} date, {@code /} a {@code d/M/yyyy} date, {@code :} a time, and a
+ * month or am/pm marker after the leading number one of the named-month or 12-hour formats. An input starting with a
+ * letter is a weekday or starts with a month. The fields of that format are then read and checked in place.
+ *
+ * <p>
+ * Inputs are read as the {@code java.time} formatters this replaces read them: letters match case-insensitively,
+ * numbers are ASCII digits, years are four digits or signed, ISO inputs are checked strictly, and the other formats
+ * clamp a day past the end of its month to the last day and read {@code 24:00} as midnight at the end of the day.
+ */
+final class DatetimeParser {
+    private static final String[] MONTHS = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct",
+        "Nov", "Dec" };
+    private static final String[] AM_PM = { "AM", "PM" };
+
+    /**
+     * Longest number of digits read for a number, beyond which no value fits any field.
+     */
+    private static final int MAX_DIGITS = 19;
+
+    /**
+     * Stands for any number too large for the fields read here.
+     */
+    private static final long TOO_LARGE = Long.MAX_VALUE;
+    private static final int MAX_YEAR = Year.MAX_VALUE;
+    private static final int MAX_OFFSET_SECONDS = 18 * 60 * 60;
+
+    /**
+     * Reads the offset after an ISO date/time, such as {@code Z} or {@code +08:00}, without throwing on a mismatch.
+     */
+    private static final DateTimeFormatter OFFSET = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .parseLenient()
+            .appendOffsetId()
+            .toFormatter(Locale.ENGLISH);
+
+    private final String text;
+    private final LocalDateTime now;
+    private int pos;
+    private int digitCount;
+
+    /**
+     * Whether the format being read gives a time of day.
+     */
+    private boolean hasTime;
+
+    private DatetimeParser(String text, LocalDateTime now) {
+        this.text = text;
+        this.now = now;
+    }
+
+    /**
+     * Parses a trimmed date/time input.
+     *
+     * @param text The input, without leading or trailing whitespace
+     * @param now  The current date/time, which fills in missing fields and anchors weekdays and times
+     * @return The date/time, or null if the input is not in a supported format
+     */
+    static LocalDateTime parse(String text, LocalDateTime now) {
+        if (text.isEmpty()) {
+            return null;
+        }
+        return new DatetimeParser(text, now).parseAny();
+    }
+
+    /**
+     * Checks whether a trimmed date/time input gives a time of day rather than only a date.
+     *
+     * @param text The input, without leading or trailing whitespace
+     * @param now  The current date/time
+     * @return Whether the input is in a supported format and gives a time
+     */
+    static boolean hasTime(String text, LocalDateTime now) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        DatetimeParser parser = new DatetimeParser(text, now);
+        return parser.parseAny() != null && parser.hasTime;
+    }
+
+    private LocalDateTime parseAny() {
+        char first = text.charAt(0);
+        if (first == '+' || first == '-') {
+            // Only years carry a sign
+            LocalDateTime iso = parseIso();
+            return iso != null ? iso : parseNumberThenWord();
+        }
+        if (!isDigit(first)) {
+            LocalDateTime weekday = parseWeekday();
+            return weekday != null ? weekday : parseMonthFirst();
+        }
+
+        int afterNumber = skipDigits(0);
+        switch (charAt(afterNumber)) {
+        case '-':
+            if (isDigit(charAt(afterNumber + 1))) {
+                LocalDateTime iso = parseIso();
+                return iso != null ? iso : parseNumericDate('-');
+            }
+            return parseNumberThenWord();
+        case '/':
+            return parseNumericDate('/');
+        case ':':
+            return parseTime();
+        default:
+            return parseNumberThenWord();
+        }
+    }
+
+    /**
+     * Parses {@code yyyy-MM-dd}, optionally followed by {@code T}, {@code HH:mm[:ss[.fraction]]} and an offset,
+     * which is ignored. Invalid dates and times are rejected rather than adjusted.
+     */
+    private LocalDateTime parseIso() {
+        pos = 0;
+        hasTime = false;
+        long year = readIsoYear();
+        if (year == TOO_LARGE || !take('-')) {
+            return null;
+        }
+        int month = readTwoDigits();
+        if (month < 0 || !take('-')) {
+            return null;
+        }
+        int day = readTwoDigits();
+        if (day < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth((int) year, month)) {
+            return null;
+        }
+        if (atEnd()) {
+            return LocalDate.of((int) year, month, day).atStartOfDay();
+        }
+
+        if (!takeIgnoreCase('T')) {
+            return null;
+        }
+        hasTime = true;
+        int hour = readTwoDigits();
+        if (hour < 0 || !take(':')) {
+            return null;
+        }
+        int minute = readTwoDigits();
+        if (minute < 0) {
+            return null;
+        }
+        int second = 0;
+        int nano = 0;
+        if (take(':')) {
+            second = readTwoDigits();
+            if (second < 0) {
+                return null;
+            }
+            if (take('.')) {
+                nano = readFraction();
+            }
+        }
+        if (hour > 23 || minute > 59 || second > 59) {
+            return null;
+        }
+        if (!atEnd() && !isOffsetToEnd()) {
+            return null;
+        }
+        return LocalDateTime.of((int) year, month, day, hour, minute, second, nano);
+    }
+
+    /**
+     * Parses {@code d-M-yyyy} or {@code d/M/yyyy}.
+     */
+    private LocalDateTime parseNumericDate(char separator) {
+        pos = 0;
+        hasTime = false;
+        long day = readNumber();
+        if (day < 0 || !take(separator)) {
+            return null;
+        }
+        long month = readNumber();
+        if (month < 0 || !take(separator)) {
+            return null;
+        }
+        long year = readYear();
+        if (!atEnd()) {
+            return null;
+        }
+        return dateTime(year, month, day, 0, 0);
+    }
+
+    /**
+     * Parses a number followed by a month or an am/pm marker: {@code yyyy MMM d [HH:mm]}, {@code d MMM yyyy} or
+     * {@code h am}. A year-first date is preferred when both readings fit.
+     */
+    private LocalDateTime parseNumberThenWord() {
+        pos = 0;
+        hasTime = false;
+        int numberStart = pos;
+        long first = readSignedNumber();
+        int firstDigits = digitCount;
+        if (first == -1) {
+            return null;
+        }
+        boolean hasDash = take('-');
+        take(' ');
+
+        int marker = readWord(AM_PM);
+        if (marker >= 0) {
+            if (hasDash || !atEnd() || text.charAt(numberStart) == '+' || text.charAt(numberStart) == '-') {
+                return null;
+            }
+            hasTime = true;
+            return clockTime(first, 0, marker);
+        }
+        int month = readWord(MONTHS) + 1;
+        if (month == 0) {
+            return null;
+        }
+        take('-');
+        take(' ');
+
+        int secondStart = pos;
+        long second = readSignedNumber();
+        int secondDigits = digitCount;
+        if (second == -1) {
+            return null;
+        }
+        long yearFirst = yearOf(numberStart, first, firstDigits);
+        boolean isSecondUnsigned = isDigit(text.charAt(secondStart));
+        if (atEnd()) {
+            LocalDateTime date = isSecondUnsigned ? dateTime(yearFirst, month, second, 0, 0) : null;
+            if (date != null || text.charAt(numberStart) == '+' || text.charAt(numberStart) == '-') {
+                return date;
+            }
+            return dateTime(yearOf(secondStart, second, secondDigits), month, first, 0, 0);
+        }
+
+        if (!isSecondUnsigned || !take(' ')) {
+            return null;
+        }
+        hasTime = true;
+        int hour = readTwoDigits();
+        if (hour < 0 || !take(':')) {
+            return null;
+        }
+        int minute = readTwoDigits();
+        if (minute < 0 || !atEnd()) {
+            return null;
+        }
+        return dateTime(yearFirst, month, second, hour, minute);
+    }
+
+    /**
+     * Parses a month followed by {@code d}, {@code d yyyy}, {@code d, yyyy}, {@code d HH:mm} or {@code d h[:mm] am},
+     * taking the current year when none is given.
+     */
+    private LocalDateTime parseMonthFirst() {
+        pos = 0;
+        hasTime = false;
+        int month = readWord(MONTHS) + 1;
+        if (month == 0) {
+            return null;
+        }
+        boolean hasDash = take('-');
+        take(' ');
+        long day = readNumber();
+        if (day < 0) {
+            return null;
+        }
+        if (atEnd()) {
+            return dateTime(now.getYear(), month, day, 0, 0);
+        }
+
+        boolean hasComma = take(',');
+        if (!take(' ')) {
+            return null;
+        }
+        int numberStart = pos;
+        long number = readSignedNumber();
+        int numberDigits = digitCount;
+        if (number == -1) {
+            return null;
+        }
+        if (atEnd()) {
+            return hasDash ? null : dateTime(yearOf(numberStart, number, numberDigits), month, day, 0, 0);
+        }
+        if (hasComma || !isDigit(text.charAt(numberStart))) {
+            return null;
+        }
+
+        hasTime = true;
+        int minute = 0;
+        if (take(':')) {
+            minute = readTwoDigits();
+            if (minute < 0) {
+                return null;
+            }
+            if (atEnd()) {
+                return numberDigits == 2 ? dateTime(now.getYear(), month, day, number, minute) : null;
+            }
+        }
+        take(' ');
+        int marker = readWord(AM_PM);
+        if (marker < 0 || !atEnd()) {
+            return null;
+        }
+        int hourOfDay = hourOfDay(number, marker);
+        return hourOfDay < 0 ? null : dateTime(now.getYear(), month, day, hourOfDay, minute);
+    }
+
+    /**
+     * Parses {@code HH:mm} for today, or {@code h:mm am} for the next time it comes round.
+     */
+    private LocalDateTime parseTime() {
+        pos = 0;
+        hasTime = true;
+        long hour = readNumber();
+        int hourDigits = digitCount;
+        if (hour < 0 || !take(':')) {
+            return null;
+        }
+        int minute = readTwoDigits();
+        if (minute < 0) {
+            return null;
+        }
+        if (atEnd()) {
+            return hourDigits == 2 ? dateTime(now.getYear(), now.getMonthValue(), now.getDayOfMonth(), hour, minute)
+                    : null;
+        }
+        take(' ');
+        int marker = readWord(AM_PM);
+        if (marker < 0 || !atEnd()) {
+            return null;
+        }
+        return clockTime(hour, minute, marker);
+    }
+
+    private LocalDateTime parseWeekday() {
+        // Lowercasing never shortens text, so nothing longer than "wednesday" can become a weekday
+        if (text.length() > "wednesday".length()) {
+            return null;
+        }
+        DayOfWeek target = toDayOfWeek(text.toLowerCase(Locale.ENGLISH));
+        if (target == null) {
+            return null;
+        }
+        int daysUntil = (target.getValue() - now.getDayOfWeek().getValue() + 7) % 7;
+        if (daysUntil == 0) {
+            daysUntil = 7;
+        }
+        return now.plusDays(daysUntil).withHour(0).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    private static DayOfWeek toDayOfWeek(String lower) {
+        switch (lower) {
+        case "mon":
+        case "monday":
+            return DayOfWeek.MONDAY;
+        case "tue":
+        case "tues":
+        case "tuesday":
+            return DayOfWeek.TUESDAY;
+        case "wed":
+        case "weds":
+        case "wednesday":
+            return DayOfWeek.WEDNESDAY;
+        case "thu":
+        case "thur":
+        case "thurs":
+        case "thursday":
+            return DayOfWeek.THURSDAY;
+        case "fri":
+        case "friday":
+            return DayOfWeek.FRIDAY;
+        case "sat":
+        case "saturday":
+            return DayOfWeek.SATURDAY;
+        case "sun":
+        case "sunday":
+            return DayOfWeek.SUNDAY;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Builds a date/time, clamping the day to the end of its month and reading {@code 24:00} as the start of the
+     * next day.
+     *
+     * @return The date/time, or null if a field is out of range
+     */
+    private static LocalDateTime dateTime(long year, long month, long day, long hour, long minute) {
+        if (year < -MAX_YEAR || year > MAX_YEAR || month < 1 || month > 12 || day < 1 || day > 31 || minute > 59) {
+            return null;
+        }
+        int clampedDay = (int) Math.min(day, lengthOfMonth((int) year, (int) month));
+        LocalDate date = LocalDate.of((int) year, (int) month, clampedDay);
+        if (hour == 24 && minute == 0) {
+            return date.equals(LocalDate.MAX) ? null : date.plusDays(1).atStartOfDay();
+        }
+        if (hour > 23) {
+            return null;
+        }
+        return date.atTime((int) hour, (int) minute);
+    }
+
+    /**
+     * Builds the next occurrence of a 12-hour time, today if it is still ahead and tomorrow otherwise.
+     *
+     * @return The date/time, or null if a field is out of range
+     */
+    private LocalDateTime clockTime(long hour, int minute, int marker) {
+        int hourOfDay = hourOfDay(hour, marker);
+        if (hourOfDay < 0 || minute > 59) {
+            return null;
+        }
+        LocalDateTime candidate = now.withHour(hourOfDay).withMinute(minute).withSecond(0).withNano(0);
+        return candidate.isAfter(now) ? candidate : candidate.plusDays(1);
+    }
+
+    /**
+     * Converts a 12-hour clock hour to an hour of the day. An hour of {@code 0} is taken as {@code 12}.
+     *
+     * @return The hour of the day, or -1 if the hour is out of range
+     */
+    private static int hourOfDay(long hour, int marker) {
+        return hour > 12 ? -1 : marker * 12 + (int) hour % 12;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return Month.of(month).length(Year.isLeap(year));
+    }
+
+    /**
+     * Interprets a number just read as a year: four unsigned digits, or {@code +} and more than four digits.
+     *
+     * @return The year, or {@link #TOO_LARGE} if the number cannot be a year
+     */
+    private long yearOf(int start, long value, int digits) {
+        char sign = text.charAt(start);
+        boolean isYear = sign == '+' ? digits > 4 : isDigit(sign) && digits == 4;
+        return isYear && value >= 1 && value <= MAX_YEAR ? value : TOO_LARGE;
+    }
+
+    private long readYear() {
+        int start = pos;
+        long value = readSignedNumber();
+        return value == -1 ? TOO_LARGE : yearOf(start, value, digitCount);
+    }
+
+    /**
+     * Reads an ISO year: four digits, {@code -} and four to ten digits, or {@code +} and five to ten digits.
+     *
+     * @return The year, or {@link #TOO_LARGE} if there is none
+     */
+    private long readIsoYear() {
+        char sign = charAt(pos);
+        long value = readSignedNumber();
+        if (value == -1) {
+            return TOO_LARGE;
+        }
+        if (digitCount < 4 || digitCount > 10 || value > MAX_YEAR) {
+            return TOO_LARGE;
+        }
+        if (sign == '+') {
+            return digitCount > 4 ? value : TOO_LARGE;
+        }
+        if (sign == '-') {
+            return value != 0 ? -value : TOO_LARGE;
+        }
+        return digitCount == 4 ? value : TOO_LARGE;
+    }
+
+    /**
+     * Reads an unsigned number of up to {@value #MAX_DIGITS} digits.
+     *
+     * @return The number, {@link #TOO_LARGE} if it has too many digits, or -1 if there are no digits
+     */
+    private long readNumber() {
+        if (!isDigit(charAt(pos))) {
+            return -1;
+        }
+        return readDigits();
+    }
+
+    /**
+     * Reads a number that may start with {@code +} or {@code -}. A negative number is returned as its magnitude; the
+     * caller looks at the sign where it matters.
+     *
+     * @return The magnitude, {@link #TOO_LARGE} if it has too many digits, or -1 if there are no digits
+     */
+    private long readSignedNumber() {
+        int start = pos;
+        char sign = charAt(pos);
+        if (sign == '+' || sign == '-') {
+            pos++;
+        }
+        if (!isDigit(charAt(pos))) {
+            pos = start;
+            return -1;
+        }
+        return readDigits();
+    }
+
+    private long readDigits() {
+        int start = pos;
+        long value = 0;
+        while (isDigit(charAt(pos))) {
+            value = value < TOO_LARGE / 10 ? value * 10 + (text.charAt(pos) - '0') : TOO_LARGE;
+            pos++;
+        }
+        digitCount = pos - start;
+        return digitCount > MAX_DIGITS ? TOO_LARGE : value;
+    }
+
+    /**
+     * Reads exactly two digits.
+     *
+     * @return The number, or -1 if the next two characters are not both digits
+     */
+    private int readTwoDigits() {
+        if (!isDigit(charAt(pos)) || !isDigit(charAt(pos + 1))) {
+            return -1;
+        }
+        int value = (text.charAt(pos) - '0') * 10 + (text.charAt(pos + 1) - '0');
+        pos += 2;
+        return value;
+    }
+
+    /**
+     * Reads up to nine digits of a fraction of a second.
+     *
+     * @return The fraction in nanoseconds
+     */
+    private int readFraction() {
+        int nanos = 0;
+        int scale = 100_000_000;
+        while (scale > 0 && isDigit(charAt(pos))) {
+            nanos += (text.charAt(pos) - '0') * scale;
+            scale /= 10;
+            pos++;
+        }
+        return nanos;
+    }
+
+    /**
+     * Reads one of the given words, matching case-insensitively. A word must not run on into further letters.
+     *
+     * @return The index of the word read, or -1 if none matches
+     */
+    private int readWord(String[] words) {
+        for (int i = 0; i < words.length; i++) {
+            String word = words[i];
+            if (regionMatchesIgnoreCase(word) && !Character.isLetter(charAt(pos + word.length()))) {
+                pos += word.length();
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean regionMatchesIgnoreCase(String word) {
+        if (pos + word.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (!charsEqualIgnoreCase(text.charAt(pos + i), word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares two characters the way {@code java.time} parsing does when it ignores case.
+     */
+    private static boolean charsEqualIgnoreCase(char a, char b) {
+        return a == b || Character.toUpperCase(a) == Character.toUpperCase(b)
+                || Character.toLowerCase(a) == Character.toLowerCase(b);
+    }
+
+    /**
+     * Checks whether the rest of the input is a valid offset from UTC.
+     */
+    private boolean isOffsetToEnd() {
+        ParsePosition position = new ParsePosition(pos);
+        TemporalAccessor offset;
+        try {
+            offset = OFFSET.parseUnresolved(text, position);
+        } catch (DateTimeException e) {
+            // Thrown for offset fields out of range, such as "+08:75", rather than reported through the position
+            return false;
+        }
+        if (offset == null || position.getErrorIndex() >= 0 || position.getIndex() != text.length()) {
+            return false;
+        }
+        long seconds = offset.getLong(ChronoField.OFFSET_SECONDS);
+        return seconds >= -MAX_OFFSET_SECONDS && seconds <= MAX_OFFSET_SECONDS;
+    }
+
+    private int skipDigits(int from) {
+        int i = from;
+        while (isDigit(charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private boolean take(char expected) {
+        if (charAt(pos) != expected) {
+            return false;
+        }
+        pos++;
+        return true;
+    }
+
+    private boolean takeIgnoreCase(char expected) {
+        if (pos >= text.length() || !charsEqualIgnoreCase(text.charAt(pos), expected)) {
+            return false;
+        }
+        pos++;
+        return true;
+    }
+
+    private boolean atEnd() {
+        return pos == text.length();
+    }
+
+    /**
+     * Returns the character at an index, or {@code '\0'} past the end of the input.
+     */
+    private char charAt(int index) {
+        return index < text.length() ? text.charAt(index) : '\0';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,201 @@
+package ibatun.util;
+
+/**
+ * Utility class for computing Levenshtein edit distances without allocating per comparison.
+ *
+ * <p>
+ * {@link #boundedDistance(String, String, int)} only reports distances up to a limit, which lets it stop as soon as
+ * the limit is certain to be exceeded. When the shorter string has at most 64 characters it runs Myers' bit-parallel
+ * algorithm, which processes a whole column of the dynamic programming table per character. Longer strings fall back
+ * to a dynamic programming band of width {@code 2 * limit + 1} around the diagonal. Working memory is kept per thread
+ * and reused.
+ *
+ * @author Binh
+ * @version 1.0
+ */
+public final class EditDistance {
+    private static final int WORD_SIZE = Long.SIZE;
+    private static final int ASCII_SIZE = 128;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private EditDistance() {
+    }
+
+    /**
+     * Computes the exact Levenshtein distance between two strings.
+     *
+     * @param a The first string
+     * @param b The second string
+     * @return The number of single-character insertions, deletions and substitutions that turn one into the other
+     */
+    public static int distance(String a, String b) {
+        return boundedDistance(a, b, Math.max(a.length(), b.length()));
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings, up to a limit.
+     *
+     * @param a   The first string
+     * @param b   The second string
+     * @param max The largest distance of interest, which must not be negative
+     * @return The distance if it is at most {@code max}, or {@code max + 1} otherwise
+     */
+    public static int boundedDistance(String a, String b, int max) {
+        assert a != null && b != null : "Strings cannot be null";
+        assert max >= 0 : "Limit cannot be negative";
+
+        String pattern = a.length() <= b.length() ? a : b;
+        String text = pattern == a ? b : a;
+        if (text.length() - pattern.length() > max) {
+            return max + 1;
+        }
+        if (pattern.isEmpty()) {
+            return text.length();
+        }
+        if (pattern.length() <= WORD_SIZE) {
+            return bitParallelDistance(pattern, text, max);
+        }
+        return bandedDistance(pattern, text, max);
+    }
+
+    /**
+     * Runs Myers' algorithm in Hyyro's formulation for global distance, keeping the vertical deltas of a column as
+     * bit vectors.
+     */
+    private static int bitParallelDistance(String pattern, String text, int max) {
+        Scratch scratch = SCRATCH.get();
+        int m = pattern.length();
+        for (int i = 0; i < m; i++) {
+            scratch.addMask(pattern.charAt(i), 1L << i);
+        }
+
+        long lastBit = 1L << (m - 1);
+        long positive = m == WORD_SIZE ? -1L : (1L << m) - 1;
+        long negative = 0;
+        int score = m;
+        int result = -1;
+        for (int j = 0; j < text.length(); j++) {
+            long equal = scratch.mask(text.charAt(j));
+            long vertical = equal | negative;
+            long horizontal = (((equal & positive) + positive) ^ positive) | equal;
+            long horizontalPositive = negative | ~(horizontal | positive);
+            long horizontalNegative = positive & horizontal;
+            if ((horizontalPositive & lastBit) != 0) {
+                score++;
+            } else if ((horizontalNegative & lastBit) != 0) {
+                score--;
+            }
+            // Each remaining character can lower the distance by at most one
+            if (score - (text.length() - j - 1) > max) {
+                result = max + 1;
+                break;
+            }
+            horizontalPositive = horizontalPositive << 1 | 1;
+            horizontalNegative <<= 1;
+            positive = horizontalNegative | ~(vertical | horizontalPositive);
+            negative = horizontalPositive & vertical;
+        }
+
+        scratch.clearMasks(pattern);
+        if (result < 0) {
+            result = Math.min(score, max + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Fills only the cells within {@code max} of the diagonal, treating every other cell as {@code max + 1}.
+     */
+    private static int bandedDistance(String a, String b, int max) {
+        int n = b.length();
+        int outside = max + 1;
+        Scratch scratch = SCRATCH.get();
+        int[] previous = scratch.row(0, n + 1);
+        int[] current = scratch.row(1, n + 1);
+        for (int j = 0; j <= n; j++) {
+            previous[j] = Math.min(j, outside);
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(n, i + max);
+            current[from - 1] = from == 1 ? Math.min(i, outside) : outside;
+            int rowMin = current[from - 1];
+            char c = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = c == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                current[j] = Math.min(value, outside);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < n) {
+                current[to + 1] = outside;
+            }
+            if (rowMin > max) {
+                return outside;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[n];
+    }
+
+    /**
+     * Holds the working memory of one thread.
+     */
+    private static final class Scratch {
+        private final long[] asciiMasks = new long[ASCII_SIZE];
+        private final char[] otherChars = new char[WORD_SIZE];
+        private final long[] otherMasks = new long[WORD_SIZE];
+        private final int[][] rows = new int[2][];
+        private int otherCount;
+
+        private void addMask(char c, long bit) {
+            if (c < ASCII_SIZE) {
+                asciiMasks[c] |= bit;
+                return;
+            }
+            for (int i = 0; i < otherCount; i++) {
+                if (otherChars[i] == c) {
+                    otherMasks[i] |= bit;
+                    return;
+                }
+            }
+            otherChars[otherCount] = c;
+            otherMasks[otherCount++] = bit;
+        }
+
+        private long mask(char c) {
+            if (c < ASCII_SIZE) {
+                return asciiMasks[c];
+            }
+            for (int i = 0; i < otherCount; i++) {
+                if (otherChars[i] == c) {
+                    return otherMasks[i];
+                }
+            }
+            return 0;
+        }
+
+        private void clearMasks(String pattern) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c < ASCII_SIZE) {
+                    asciiMasks[c] = 0;
+                }
+            }
+            otherCount = 0;
+        }
+
+        private int[] row(int index, int size) {
+            if (rows[index] == null || rows[index].length < size) {
+                rows[index] = new int[Math.max(size, 2 * WORD_SIZE)];
+            }
+            return rows[index];
+        }
+    }
+}
@@ -1,17 +1,14 @@
 package ibatun.util;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import ibatun.tasks.Deadline;
 import ibatun.tasks.Event;
@@ -21,43 +18,155 @@ import ibatun.tasks.Todo;
 /**
  * Adapts Task objects for serialization and deserialization with Gson.
  *
+ * <p>
+ * Fields are written and read directly on the JSON stream, in the same order and format that reflective binding
+ * produced, so existing data files stay byte-for-byte compatible. The stable task identifier follows {@code isDone} and
+ * is left out while no store has assigned one.
+ *
  * @author Binh
  * @version 1.0
  */
-public class TaskAdapter implements JsonSerializer<Task>, JsonDeserializer<Task> {
-    private final Gson defaultGson = new GsonBuilder()
-            .registerTypeAdapter(LocalDateTime.class, new DatetimeAdapter())
-            .create();
+public class TaskAdapter extends TypeAdapter<Task> {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
     @Override
-    public JsonElement serialize(Task task, Type typeOfSrc, JsonSerializationContext context) {
-        JsonElement element = defaultGson.toJsonTree(task);
-        JsonObject object = element.getAsJsonObject();
-
-        object.addProperty("type", task.getClass().getSimpleName().toLowerCase());
+    public void write(JsonWriter out, Task task) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
 
-        return object;
+        out.beginObject();
+        if (task instanceof Deadline deadline) {
+            writeDatetime(out, "by", deadline.getBy());
+        } else if (task instanceof Event event) {
+            writeDatetime(out, "from", event.getFrom());
+            writeDatetime(out, "to", event.getTo());
+        }
+        out.name("name").value(task.getName());
+        out.name("isDone").value(task.isDone());
+        if (task.getId() > 0) {
+            out.name("id").value(task.getId());
+        }
+        out.name("type").value(typeOf(task));
+        out.endObject();
     }
 
     @Override
-    public Task deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-            throws JsonParseException {
-        JsonObject object = json.getAsJsonObject();
-        JsonElement type = object.get("type");
+    public Task read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String type = null;
+        String name = null;
+        boolean isDone = false;
+        long id = 0;
+        LocalDateTime by = null;
+        LocalDateTime from = null;
+        LocalDateTime to = null;
 
-        if (type == null || type.isJsonNull()) {
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (field) {
+            case "type":
+                type = in.nextString();
+                break;
+            case "name":
+                name = in.nextString();
+                break;
+            case "isDone":
+                isDone = readBoolean(in);
+                break;
+            case "id":
+                id = in.nextLong();
+                break;
+            case "by":
+                by = readDatetime(in);
+                break;
+            case "from":
+                from = readDatetime(in);
+                break;
+            case "to":
+                to = readDatetime(in);
+                break;
+            default:
+                in.skipValue();
+                break;
+            }
+        }
+        in.endObject();
+
+        Task task = createTask(type, name, by, from, to);
+        if (isDone) {
+            task.mark();
+        }
+        if (id > 0) {
+            task.setId(id);
+        }
+        return task;
+    }
+
+    private static String typeOf(Task task) {
+        if (task instanceof Deadline) {
+            return "deadline";
+        } else if (task instanceof Event) {
+            return "event";
+        }
+        return "todo";
+    }
+
+    private static void writeDatetime(JsonWriter out, String field, LocalDateTime dateTime) throws IOException {
+        out.name(field).value(dateTime.format(FORMATTER));
+    }
+
+    private static LocalDateTime readDatetime(JsonReader in) throws IOException {
+        return LocalDateTime.parse(in.nextString(), FORMATTER);
+    }
+
+    private static boolean readBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+
+    private static Task createTask(String type, String name, LocalDateTime by, LocalDateTime from,
+            LocalDateTime to) {
+        if (type == null) {
             throw new JsonParseException("Missing 'type' field in Task JSON");
         }
+        if (name == null || name.isBlank()) {
+            throw new JsonParseException("Missing 'name' field in Task JSON");
+        }
 
-        switch (type.getAsString()) {
+        switch (type) {
         case "todo":
-            return defaultGson.fromJson(json, Todo.class);
+            return new Todo(name);
         case "deadline":
-            return defaultGson.fromJson(json, Deadline.class);
+            requireField(by, "by");
+            return new Deadline(name, by);
         case "event":
-            return defaultGson.fromJson(json, Event.class);
+            requireField(from, "from");
+            requireField(to, "to");
+            if (to.isBefore(from)) {
+                throw new JsonParseException("Event ends before it starts");
+            }
+            return new Event(name, from, to);
         default:
-            throw new JsonParseException("Unknown task type: " + type.getAsString());
+            throw new JsonParseException("Unknown task type: " + type);
+        }
+    }
+
+    private static void requireField(Object value, String field) {
+        if (value == null) {
+            throw new JsonParseException("Missing '" + field + "' field in Task JSON");
         }
     }
 }
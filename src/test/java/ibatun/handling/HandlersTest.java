@@ -1,13 +1,19 @@
 package ibatun.handling;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import ibatun.index.DateIndex;
+import ibatun.tasks.Deadline;
+import ibatun.tasks.Event;
+import ibatun.tasks.Task;
 import ibatun.tasks.Todo;
 
 public class HandlersTest {
@@ -89,6 +95,39 @@ public class HandlersTest {
         assertTrue(sink.last().contains("added this event"));
     }
 
+    @Test
+    public void eventHandler_overlappingEvent_warnsOrRefuses() throws Exception {
+        TestSupport.ResponseSink sink = new TestSupport.ResponseSink();
+        TestSupport.InMemoryStore store = new TestSupport.InMemoryStore(new ArrayList<>());
+        EventHandler handler = new EventHandler(store, sink);
+
+        handler.handle(new String[] { "standup", "/from", "2030-03-01T09:00", "/to", "2030-03-01T10:00" });
+        handler.handle(new String[] { "review", "/from", "2030-03-01T10:00", "/to", "2030-03-01T11:00" });
+        assertFalse(sink.last().contains("overlaps"));
+
+        handler.handle(new String[] { "demo", "/from", "2030-03-01T09:30", "/to", "2030-03-01T10:30", "/strict" });
+        assertTrue(sink.last().contains("That event overlaps with:\n    1. [E][ ] standup"));
+        assertTrue(sink.last().contains("2. [E][ ] review"));
+        assertEquals(2, store.list().size());
+
+        handler.handle(new String[] { "demo", "/from", "2030-03-01T09:30", "/to", "2030-03-01T10:30" });
+        assertTrue(sink.last().contains("Heads up, it overlaps with:\n    1. [E][ ] standup"));
+        assertEquals("demo", store.get(2).getName());
+    }
+
+    @Test
+    public void eventHandler_strictInDescription_keptAsText() throws Exception {
+        TestSupport.ResponseSink sink = new TestSupport.ResponseSink();
+        TestSupport.InMemoryStore store = new TestSupport.InMemoryStore(new ArrayList<>());
+        EventHandler handler = new EventHandler(store, sink);
+
+        handler.handle(new String[] { "standup", "/from", "2030-03-01T09:00", "/to", "2030-03-01T10:00" });
+        handler.handle(new String[] { "test", "/strict", "mode", "/from", "2030-03-01T09:30", "/to",
+            "2030-03-01T10:30" });
+        assertTrue(sink.last().contains("Heads up, it overlaps with"));
+        assertEquals("test /strict mode", store.get(1).getName());
+    }
+
     @Test
     public void markHandler_invalidNumber_fails() {
         TestSupport.ResponseSink sink = new TestSupport.ResponseSink();
@@ -189,6 +228,41 @@ public class HandlersTest {
         assertTrue(sink.last().contains("write"));
     }
 
+    @Test
+    public void listHandler_rowConsumer_receivesFixedRows() throws Exception {
+        TestSupport.RowSink sink = new TestSupport.RowSink();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        TestSupport.InMemoryStore store = new TestSupport.InMemoryStore(tasks);
+        ListHandler handler = new ListHandler(store, sink);
+
+        handler.handle(new String[] {});
+        store.add(new Todo("late"));
+        RowResponse rows = sink.rows();
+        assertTrue(sink.messages().isEmpty());
+        assertEquals("Here are the tasks in your list (drumroll):", rows.getHeading());
+        assertEquals(1000, rows.size());
+        assertEquals("    1000. [T][ ] task 999  #" + tasks.get(999).getId(), rows.getRow(999));
+    }
+
+    @Test
+    public void findHandler_rowConsumer_numbersRowsFromPage() {
+        TestSupport.RowSink sink = new TestSupport.RowSink();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(new Todo("read " + i));
+        }
+        FindHandler handler = new FindHandler(new TestSupport.InMemoryStore(tasks), sink);
+
+        handler.handle(new String[] { "read", "--limit", "2", "--page", "2" });
+        RowResponse rows = sink.rows();
+        assertEquals(2, rows.size());
+        assertTrue(rows.getRow(0).startsWith("    3. "));
+        assertTrue(rows.toText().startsWith("Here are matching tasks 3-4 of 5 in your list:\n    3. "));
+    }
+
     @Test
     public void findHandler_noKeywords_fails() {
         TestSupport.ResponseSink sink = new TestSupport.ResponseSink();
@@ -219,4 +293,207 @@ public class HandlersTest {
         assertTrue(sink.last().contains("matching tasks"));
         assertTrue(sink.last().contains("read book"));
     }
+
+    @Test
+    public void findHandler_parallelScoring_matchesSequentialOrder() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            tasks.add(new Todo(List.of("read", "reed", "rend", "bead", "road book").get(i % 5) + " " + i));
+        }
+        TestSupport.ResponseSink sequentialSink = new TestSupport.ResponseSink();
+        TestSupport.ResponseSink parallelSink = new TestSupport.ResponseSink();
+        FindHandler sequential = new FindHandler(new TestSupport.InMemoryStore(new ArrayList<>(tasks)),
+                sequentialSink, Integer.MAX_VALUE);
+        FindHandler parallel = new FindHandler(new TestSupport.InMemoryStore(new ArrayList<>(tasks)), parallelSink, 1);
+
+        sequential.handle(new String[] { "read" });
+        parallel.handle(new String[] { "read" });
+        assertEquals(sequentialSink.last(), parallelSink.last());
+        assertTrue(parallelSink.last().startsWith("Here are the matching tasks in your list:\n    1. [T][ ] read 0"));
+    }
+
+    @Test
+    public void findHandler_limitAndPage_showsOnePage() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(new Todo((i % 2 == 0 ? "reed " : "read ") + i));
+        }
+        TestSupport.ResponseSink sink = new TestSupport.ResponseSink();
+        FindHandler handler = new FindHandler(new TestSupport.InMemoryStore(new ArrayList<>(tasks)), sink);
+
+        handler.handle(new String[] { "read", "--limit", "20", "--page", "3" });
+        assertTrue(sink.last().startsWith("Here are matching tasks 41-50 of 50 in your list:\n    41. [T][ ] reed 30"));
+        assertTrue(sink.last().endsWith("    50. [T][ ] reed 48  #49"));
+        assertFalse(sink.last().contains("40."));
+
+        handler.handle(new String[] { "read", "--limit", "3" });
+        assertTrue(sink.last().startsWith("Here are matching tasks 1-3 of 50 in your list:\n    1. [T][ ] read 1"));
+        assertTrue(sink.last().endsWith("    3. [T][ ] read 5  #6"));
+
+        handler.handle(new String[] { "read", "--limit", "20", "--page", "4" });
+        assertTrue(sink.last().contains("page 4 is empty"));
+    }
+
+    @Test
+    public void findHandler_invalidLimit_fails() {
+        TestSupport.ResponseSink sink = new TestSupport.ResponseSink();
+        TestSupport.InMemoryStore store = new TestSupport.InMemoryStore(new ArrayList<>(List.of(new Todo("read"))));
+        FindHandler handler = new FindHandler(store, sink);
+
+        handler.handle(new String[] { "read", "--limit", "0" });
+        assertTrue(sink.last().contains("must be positive"));
+        handler.handle(new String[] { "read", "--limit" });
+        assertTrue(sink.last().contains("must be positive"));
+        handler.handle(new String[] { "read", "--page", "2" });
+        assertTrue(sink.last().contains("a page needs a limit"));
+    }
+
+    @Test
+    public void findHandler_repeatedSearch_usesCacheUntilChanged() throws Exception {
+        TestSupport.ResponseSink sink = new TestSupport.ResponseSink();
+        TestSupport.InMemoryStore store = new TestSupport.InMemoryStore(
+                new ArrayList<>(List.of(new Todo("read book"), new Todo("reed"), new Todo("write"))));
+        FindHandler handler = new FindHandler(store, sink);
+
+        handler.handle(new String[] { "read" });
+        String first = sink.last();
+        handler.handle(new String[] { "READ" });
+        assertEquals(first, sink.last());
+        assertEquals(1, handler.getCacheHits());
+        assertEquals(1, handler.getCacheMisses());
+
+        handler.handle(new String[] { "read", "--limit", "1" });
+        assertEquals(2, handler.getCacheHits());
+
+        store.modify(0, Task::mark);
+        handler.handle(new String[] { "read" });
+        assertTrue(sink.last().contains("[T][X] read book"));
+        assertEquals(2, handler.getCacheMisses());
+    }
+
+    @Test
+    public void dateHandlers_listTasksInRange() {
+        TestSupport.InMemoryStore store = new TestSupport.InMemoryStore(new ArrayList<>(List.of(
+                new Deadline("report", LocalDateTime.of(2030, 3, 1, 18, 0)),
+                new Event("trip", LocalDateTime.of(2030, 2, 28, 9, 0), LocalDateTime.of(2030, 3, 2, 17, 0)),
+                new Deadline("taxes", LocalDateTime.of(2030, 3, 5, 12, 0)), new Todo("read"))));
+        DateIndex dates = new DateIndex(store);
+        TestSupport.ResponseSink sink = new TestSupport.ResponseSink();
+
+        new DueHandler(store, dates, sink).handle(new String[] { "2030-03-04" });
+        assertTrue(sink.last().endsWith("deadlines due then:\n    1. [D][ ] report (by: Mar 1, 2030 at 18:00)  #1"));
+        new DueHandler(store, dates, sink).handle(new String[] { "2030-03-02", "/to", "2030-03-05" });
+        assertTrue(sink.last().contains("1. [D][ ] taxes"));
+        assertFalse(sink.last().contains("report"));
+        new DueHandler(store, dates, sink).handle(new String[] { "2030-03-05T00:00" });
+        assertFalse(sink.last().contains("taxes"));
+        new DueHandler(store, dates, sink).handle(new String[] { "2030-03-05", "/to", "2030-03-02" });
+        assertTrue(sink.last().contains("cannot end before it starts"));
+
+        new OnHandler(store, dates, sink).handle(new String[] { "2030-03-01" });
+        assertTrue(sink.last().contains("1. [E][ ] trip"));
+        assertTrue(sink.last().contains("2. [D][ ] report"));
+
+        new OverlappingHandler(store, dates, sink).handle(new String[] { "2030-03-02", "/to", "2030-03-09" });
+        assertTrue(sink.last().contains("1. [E][ ] trip"));
+        new OverlappingHandler(store, dates, sink).handle(new String[] { "2030-03-03", "/to", "2030-03-09" });
+        assertTrue(sink.last().contains("No events in that range"));
+        new OverlappingHandler(store, dates, sink).handle(new String[] { "2030-03-09", "/to", "2030-03-03" });
+        assertTrue(sink.last().contains("cannot end before it starts"));
+        new OverlappingHandler(store, dates, sink).handle(new String[] { "2030-03-03" });
+        assertTrue(sink.last().contains("Format: overlapping"));
+    }
+
+    @Test
+    public void dateHandlers_rowConsumer_receivesRows() throws Exception {
+        TestSupport.InMemoryStore store = new TestSupport.InMemoryStore(new ArrayList<>(List.of(
+                new Deadline("report", LocalDateTime.of(2030, 3, 1, 18, 0)),
+                new Event("trip", LocalDateTime.of(2030, 2, 28, 9, 0), LocalDateTime.of(2030, 3, 2, 17, 0)))));
+        DateIndex dates = new DateIndex(store);
+        TestSupport.RowSink sink = new TestSupport.RowSink();
+
+        new OnHandler(store, dates, sink).handle(new String[] { "2030-03-01" });
+        RowResponse rows = sink.rows();
+        assertTrue(sink.messages().isEmpty());
+        assertEquals("Here is what is on that day:", rows.getHeading());
+        assertEquals(2, rows.size());
+        assertEquals("    2. [D][ ] report (by: Mar 1, 2030 at 18:00)  #1", rows.getRow(1));
+
+        StringBuilder streamed = new StringBuilder();
+        rows.writeTo(streamed);
+        assertEquals(rows.toText(), streamed.toString());
+    }
+
+    @Test
+    public void markHandler_stableId_marksTask() throws Exception {
+        TestSupport.ResponseSink sink = new TestSupport.ResponseSink();
+        TestSupport.InMemoryStore store = new TestSupport.InMemoryStore(
+                new ArrayList<>(List.of(new Todo("read"), new Todo("write"))));
+        store.remove(0);
+        MarkHandler handler = new MarkHandler(store, sink);
+
+        handler.handle(new String[] { "#2" });
+        assertTrue(store.get(0).isDone());
+
+        handler.handle(new String[] { "#1" });
+        assertTrue(sink.last().contains("not found"));
+    }
+
+    @Test
+    public void listHandler_withTasks_showsIds() throws Exception {
+        TestSupport.ResponseSink sink = new TestSupport.ResponseSink();
+        TestSupport.InMemoryStore store = new TestSupport.InMemoryStore(
+                new ArrayList<>(List.of(new Todo("read"), new Todo("write"))));
+        store.remove(0);
+        ListHandler handler = new ListHandler(store, sink);
+
+        handler.handle(new String[] {});
+        assertTrue(sink.last().contains("1. [T][ ] write  #2"));
+    }
+
+    @Test
+    public void deleteHandler_listsAndRanges_removesAllOnce() throws Exception {
+        TestSupport.ResponseSink sink = new TestSupport.ResponseSink();
+        TestSupport.InMemoryStore store = new TestSupport.InMemoryStore(new ArrayList<>());
+        for (int i = 1; i <= 50; i++) {
+            store.add(new Todo("task " + i));
+        }
+        DeleteHandler handler = new DeleteHandler(store, sink);
+
+        handler.handle(new String[] { "3", "5,10-40", "#4", "5" });
+        assertEquals(16, store.list().size());
+        assertEquals("task 6", store.get(2).getName());
+        assertTrue(sink.last().contains("removed these tasks"));
+        assertTrue(sink.last().contains("Now you have 16 tasks"));
+    }
+
+    @Test
+    public void deleteHandler_rangeOutOfBounds_removesNothing() throws Exception {
+        TestSupport.ResponseSink sink = new TestSupport.ResponseSink();
+        TestSupport.InMemoryStore store = new TestSupport.InMemoryStore(
+                new ArrayList<>(List.of(new Todo("read"), new Todo("write"))));
+        DeleteHandler handler = new DeleteHandler(store, sink);
+
+        handler.handle(new String[] { "1-3" });
+        assertEquals(2, store.list().size());
+        handler.handle(new String[] { "2-1" });
+        assertTrue(sink.last().contains("valid task number"));
+        assertEquals(2, store.list().size());
+    }
+
+    @Test
+    public void markHandler_severalTasks_skipsThoseAlreadyDone() throws Exception {
+        TestSupport.ResponseSink sink = new TestSupport.ResponseSink();
+        Todo done = new Todo("write");
+        done.mark();
+        TestSupport.InMemoryStore store = new TestSupport.InMemoryStore(
+                new ArrayList<>(List.of(new Todo("read"), done, new Todo("sleep"))));
+        MarkHandler handler = new MarkHandler(store, sink);
+
+        handler.handle(new String[] { "1-3" });
+        assertTrue(store.get(0).isDone());
+        assertTrue(store.get(2).isDone());
+        assertTrue(sink.last().contains("marked these tasks as done"));
+        assertTrue(!sink.last().contains("write"));
+    }
 }
@@ -30,6 +30,29 @@ final class TestSupport {
         }
     }
 
+    static final class RowSink implements RowResponseConsumer {
+        private final List<String> messages = new ArrayList<>();
+        private RowResponse rows;
+
+        @Override
+        public void accept(String message) {
+            messages.add(message);
+        }
+
+        @Override
+        public void acceptRows(RowResponse response) {
+            rows = response;
+        }
+
+        List<String> messages() {
+            return messages;
+        }
+
+        RowResponse rows() {
+            return rows;
+        }
+    }
+
     private TestSupport() {
     }
 }
@@ -0,0 +1,45 @@
+package ibatun.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ibatun.storage.TaskStore;
+import ibatun.tasks.Deadline;
+import ibatun.tasks.Event;
+import ibatun.tasks.Task;
+import ibatun.tasks.Todo;
+
+public class DateIndexTest {
+    private static final class InMemoryStore extends TaskStore {
+        InMemoryStore(List<Task> tasks) {
+            super(tasks);
+        }
+    }
+
+    @Test
+    public void queries_followStoreChanges() throws Exception {
+        Deadline report = new Deadline("report", LocalDateTime.of(2030, 3, 1, 18, 0));
+        Deadline taxes = new Deadline("taxes", LocalDateTime.of(2030, 3, 5, 12, 0));
+        Event trip = new Event("trip", LocalDateTime.of(2030, 3, 2, 9, 0), LocalDateTime.of(2030, 3, 4, 17, 0));
+        TaskStore store = new InMemoryStore(new ArrayList<>(List.of(new Todo("read"), report, trip)));
+        DateIndex index = new DateIndex(store);
+        store.add(taxes);
+
+        assertEquals(List.of(report, taxes),
+                index.deadlinesBetween(LocalDateTime.MIN, LocalDateTime.of(2030, 3, 5, 12, 0)));
+        assertEquals(List.of(taxes),
+                index.deadlinesBetween(LocalDateTime.of(2030, 3, 2, 0, 0), LocalDateTime.of(2030, 3, 31, 0, 0)));
+        assertEquals(List.of(trip),
+                index.eventsOverlapping(LocalDateTime.of(2030, 3, 3, 0, 0), LocalDateTime.of(2030, 3, 3, 23, 59)));
+
+        store.remove(1);
+        store.remove(1);
+        assertEquals(List.of(taxes), index.deadlinesBetween(LocalDateTime.MIN, LocalDateTime.MAX));
+        assertEquals(List.of(), index.eventsOverlapping(LocalDateTime.MIN, LocalDateTime.MAX));
+    }
+}
@@ -0,0 +1,70 @@
+package ibatun.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class IntervalTreeTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private record Interval(LocalDateTime start, LocalDateTime end, long key) {
+    }
+
+    @Test
+    public void overlapping_touchingEnds_countAsOverlap() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.add(BASE, BASE.plusHours(1), 1, "first");
+        tree.add(BASE.plusHours(2), BASE.plusHours(3), 2, "second");
+
+        assertEquals(List.of("first"), tree.overlapping(BASE.plusHours(1), BASE.plusMinutes(90)));
+        assertEquals(List.of("first", "second"), tree.overlapping(BASE.plusHours(1), BASE.plusHours(2)));
+        assertEquals(List.of(), tree.overlapping(BASE.plusMinutes(61), BASE.plusMinutes(119)));
+    }
+
+    @Test
+    public void remove_unknownInterval_returnsFalse() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.add(BASE, BASE, 1, "only");
+
+        assertFalse(tree.remove(BASE, 2));
+        assertTrue(tree.remove(BASE, 1));
+        assertEquals(0, tree.size());
+        assertEquals(List.of(), tree.overlapping(BASE, BASE));
+    }
+
+    @Test
+    public void overlapping_randomIntervals_matchesScan() {
+        Random random = new Random(17);
+        IntervalTree<Interval> tree = new IntervalTree<>();
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 1; i <= 3000; i++) {
+            if (!intervals.isEmpty() && random.nextInt(3) == 0) {
+                Interval removed = intervals.remove(random.nextInt(intervals.size()));
+                assertTrue(tree.remove(removed.start(), removed.key()));
+            }
+            // Starts repeat often so that ties on the start are exercised
+            LocalDateTime start = BASE.plusHours(random.nextInt(500));
+            Interval interval = new Interval(start, start.plusHours(random.nextInt(48)), i);
+            intervals.add(interval);
+            tree.add(interval.start(), interval.end(), interval.key(), interval);
+
+            LocalDateTime from = BASE.plusHours(random.nextInt(550));
+            LocalDateTime to = from.plusHours(random.nextInt(24));
+            List<Interval> expected = intervals
+                    .stream()
+                    .filter(candidate -> !candidate.start().isAfter(to) && !candidate.end().isBefore(from))
+                    .sorted(Comparator.comparing(Interval::start).thenComparingLong(Interval::key))
+                    .toList();
+            assertEquals(expected, tree.overlapping(from, to));
+        }
+        assertEquals(intervals.size(), tree.size());
+    }
+}
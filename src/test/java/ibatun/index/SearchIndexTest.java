@@ -0,0 +1,114 @@
+package ibatun.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import ibatun.storage.TaskStore;
+import ibatun.tasks.Task;
+import ibatun.tasks.Todo;
+
+public class SearchIndexTest {
+    private static final class InMemoryStore extends TaskStore {
+        InMemoryStore(List<Task> tasks) {
+            super(tasks);
+        }
+    }
+
+    @Test
+    public void findWithin_matchesWordsAndWholeNames() {
+        Task book = new Todo("Read Book");
+        Task report = new Todo("write report");
+        SearchIndex index = new SearchIndex(new InMemoryStore(new ArrayList<>(List.of(book, report))));
+
+        assertEquals(Set.of(book), index.findWithin("bok", 1));
+        assertEquals(Set.of(book), index.findWithin("read bok", 1));
+        assertEquals(Set.of(report), index.findWithin("reprt", 1));
+        assertEquals(Set.of(), index.findWithin("xyz", 1));
+    }
+
+    @Test
+    public void findWithin_followsStoreChanges() throws Exception {
+        TaskStore store = new InMemoryStore(new ArrayList<>());
+        SearchIndex index = new SearchIndex(store);
+        Task first = new Todo("read book");
+        Task second = new Todo("book club");
+        store.add(first);
+        store.add(second);
+        assertEquals(Set.of(first, second), index.findWithin("book", 1));
+
+        assertEquals(Set.of(first, second), index.findWithin("bk", 2));
+
+        store.remove(0);
+        assertEquals(Set.of(second), index.findWithin("book", 1));
+        assertEquals(Set.of(second), index.findWithin("bk", 2));
+        assertEquals(Set.of(), index.findWithin("read", 1));
+        assertEquals(3, index.termCount());
+
+        store.removeAll(new int[] { 0 });
+        assertEquals(0, index.termCount());
+    }
+
+    @Test
+    public void findWithin_randomNames_matchesBruteForce() {
+        Random random = new Random(7);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tasks.add(new Todo(randomWord(random) + " " + randomWord(random) + (i % 3 == 0 ? "  x" : "")));
+        }
+        SearchIndex index = new SearchIndex(new InMemoryStore(new ArrayList<>(tasks)));
+
+        for (int i = 0; i < 200; i++) {
+            String keyword = randomWord(random);
+            int maxDistance = Math.max(1, (int) Math.ceil(keyword.length() * 0.4));
+            Set<Task> expected = new HashSet<>();
+            for (Task task : tasks) {
+                for (String term : SearchIndex.termsOf(task)) {
+                    if (distance(keyword, term) <= maxDistance) {
+                        expected.add(task);
+                    }
+                }
+            }
+            assertEquals(expected, index.findWithin(keyword, maxDistance), keyword);
+        }
+    }
+
+    @Test
+    public void termsOf_splitsLikeFind() {
+        assertEquals(List.of(" read  book", "read", "book"), SearchIndex.termsOf(new Todo(" Read  BOOK")));
+        assertTrue(SearchIndex.termsOf(new Todo("solo")).contains("solo"));
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 1 + random.nextInt(9);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+
+    private static int distance(String a, String b) {
+        int[][] dp = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            dp[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            dp[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                dp[i][j] = Math.min(Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1), dp[i - 1][j - 1] + cost);
+            }
+        }
+        return dp[a.length()][b.length()];
+    }
+}
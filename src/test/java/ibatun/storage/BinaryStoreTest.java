@@ -0,0 +1,163 @@
+package ibatun.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ibatun.errors.IbatunCorruptedDataException;
+import ibatun.tasks.Deadline;
+import ibatun.tasks.Event;
+import ibatun.tasks.Task;
+import ibatun.tasks.Todo;
+
+public class BinaryStoreTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void constructor_missingFile_startsEmpty() throws Exception {
+        BinaryStore store = new BinaryStore(tempDir.resolve("missing.bin").toString());
+        assertEquals(0, store.list().size());
+    }
+
+    @Test
+    public void constructor_existingFile_loadsAllTaskTypes() throws Exception {
+        Path filePath = tempDir.resolve("tasks.bin");
+        BinaryStore store = new BinaryStore(filePath.toString());
+        store.add(new Todo("read"));
+        store.add(new Deadline("submit", LocalDateTime.of(2026, 2, 11, 23, 59)));
+        store.add(new Event("conf", LocalDateTime.of(2026, 2, 12, 9, 0, 0, 500), LocalDateTime.of(2026, 2, 12, 18, 0)));
+        store.modify(1, Task::mark);
+
+        BinaryStore reloaded = new BinaryStore(filePath.toString());
+        assertEquals(3, reloaded.list().size());
+        assertInstanceOf(Todo.class, reloaded.get(0));
+        Deadline deadline = assertInstanceOf(Deadline.class, reloaded.get(1));
+        assertEquals(LocalDateTime.of(2026, 2, 11, 23, 59), deadline.getBy());
+        assertTrue(deadline.isDone());
+        Event event = assertInstanceOf(Event.class, reloaded.get(2));
+        assertEquals(LocalDateTime.of(2026, 2, 12, 9, 0, 0, 500), event.getFrom());
+        assertEquals(LocalDateTime.of(2026, 2, 12, 18, 0), event.getTo());
+        assertFalse(event.isDone());
+    }
+
+    @Test
+    public void remove_updatesFile() throws Exception {
+        Path filePath = tempDir.resolve("tasks.bin");
+        BinaryStore store = new BinaryStore(filePath.toString());
+        store.add(new Todo("read"));
+        store.add(new Todo("write"));
+        store.remove(0);
+
+        BinaryStore reloaded = new BinaryStore(filePath.toString());
+        assertEquals(1, reloaded.list().size());
+        assertEquals("write", reloaded.get(0).getName());
+    }
+
+    @Test
+    public void constructor_corruptedData_throwsWarningException() throws Exception {
+        Path filePath = tempDir.resolve("corrupted.bin");
+        Files.writeString(filePath, "{not binary}");
+
+        assertThrows(IbatunCorruptedDataException.class, () -> new BinaryStore(filePath.toString()));
+        assertEquals(0, new BinaryStore(filePath.toString(), true).list().size());
+    }
+
+    @Test
+    public void constructor_truncatedDataWithBackup_loadsBackup() throws Exception {
+        Path filePath = tempDir.resolve("tasks.bin");
+        BinaryStore store = new BinaryStore(filePath.toString());
+        store.add(new Todo("read"));
+        store.add(new Todo("write"));
+        byte[] bytes = Files.readAllBytes(filePath);
+        Files.write(filePath, Arrays.copyOf(bytes, bytes.length - 3));
+
+        BinaryStore reloaded = new BinaryStore(filePath.toString());
+        assertEquals(1, reloaded.list().size());
+    }
+
+    @Test
+    public void constructor_corruptedDataWithBackup_reportsRestore() throws Exception {
+        Path filePath = tempDir.resolve("tasks.bin");
+        BinaryStore store = new BinaryStore(filePath.toString());
+        store.add(new Todo("read"));
+        store.add(new Todo("write"));
+        Files.writeString(filePath, "{not binary}");
+
+        BinaryStore reloaded = new BinaryStore(filePath.toString());
+        assertEquals(1, reloaded.list().size());
+        assertEquals("read", reloaded.get(0).getName());
+        assertTrue(reloaded.getLoadNotice().contains("restored"));
+        assertNull(store.getLoadNotice());
+    }
+
+    @Test
+    public void async_close_writesAllChanges() throws Exception {
+        Path filePath = tempDir.resolve("tasks.bin");
+        BinaryStore store = new BinaryStore(filePath.toString(), false, true);
+        for (int i = 0; i < 20; i++) {
+            store.add(new Todo("task " + i));
+        }
+        store.close();
+
+        assertEquals(20, new BinaryStore(filePath.toString()).list().size());
+    }
+
+    @Test
+    public void storeConverter_roundTrip_preservesTasks() throws Exception {
+        Path jsonPath = tempDir.resolve("tasks.json");
+        JsonStore jsonStore = new JsonStore(jsonPath.toString());
+        jsonStore.add(new Todo("read"));
+        jsonStore.add(new Deadline("submit", LocalDateTime.of(2026, 2, 11, 23, 59)));
+        jsonStore.modify(0, Task::mark);
+        String original = Files.readString(jsonPath);
+
+        Path binaryPath = tempDir.resolve("tasks.bin");
+        assertEquals(2, StoreConverter.jsonToBinary(jsonPath.toString(), binaryPath.toString(), false));
+        assertTrue(Files.size(binaryPath) < original.length());
+
+        Path convertedPath = tempDir.resolve("converted.json");
+        assertEquals(2, StoreConverter.binaryToJson(binaryPath.toString(), convertedPath.toString(), false));
+        assertEquals(original, Files.readString(convertedPath));
+    }
+
+    @Test
+    public void storeConverter_journaledJson_leavesSourceUntouched() throws Exception {
+        Path jsonPath = tempDir.resolve("tasks.json");
+        new JsonStore(jsonPath.toString()).add(new Todo("read"));
+        JsonStore jsonStore = new JsonStore(jsonPath.toString(), false, true);
+        jsonStore.add(new Todo("write"));
+        Path journalPath = tempDir.resolve("tasks.json.journal");
+        String snapshot = Files.readString(jsonPath);
+        String journal = Files.readString(journalPath);
+
+        Path binaryPath = tempDir.resolve("tasks.bin");
+        assertEquals(2, StoreConverter.jsonToBinary(jsonPath.toString(), binaryPath.toString(), false));
+        assertEquals(snapshot, Files.readString(jsonPath));
+        assertEquals(journal, Files.readString(journalPath));
+    }
+
+    @Test
+    public void storeConverter_corruptedJson_convertsOnlyWhenRecovering() throws Exception {
+        Path jsonPath = tempDir.resolve("tasks.json");
+        Files.writeString(jsonPath, "[{\"name\":\"wri");
+        Path binaryPath = tempDir.resolve("tasks.bin");
+
+        assertThrows(IbatunCorruptedDataException.class,
+                () -> StoreConverter.jsonToBinary(jsonPath.toString(), binaryPath.toString(), false));
+        assertFalse(Files.exists(binaryPath));
+        assertEquals(0, StoreConverter.jsonToBinary(jsonPath.toString(), binaryPath.toString(), true));
+        assertEquals("[{\"name\":\"wri", Files.readString(jsonPath));
+    }
+}
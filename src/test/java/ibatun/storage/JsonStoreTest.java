@@ -2,6 +2,7 @@ package ibatun.storage;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -117,4 +118,246 @@ public class JsonStoreTest {
         assertTrue(Files.exists(filePath));
         assertTrue(Files.exists(filePath.getParent()));
     }
+
+    @Test
+    public void journaled_mutations_appendWithoutRewritingSnapshot() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString(), false, true);
+        store.add(new Todo("read"));
+        store.modify(0, Task::mark);
+
+        assertFalse(Files.exists(filePath));
+        String journal = Files.readString(tempDir.resolve("tasks.json.journal"));
+        assertEquals(3, journal.lines().count());
+        assertTrue(journal.contains("\"op\":\"add\""));
+        assertTrue(journal.contains("\"op\":\"modify\""));
+    }
+
+    @Test
+    public void journaled_reopenWithoutClose_replaysJournal() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString(), false, true);
+        store.add(new Todo("read"));
+        store.add(new Todo("write"));
+        store.remove(0);
+        store.modify(0, Task::mark);
+
+        JsonStore reloaded = new JsonStore(filePath.toString());
+        assertEquals(1, reloaded.list().size());
+        assertEquals("write", reloaded.get(0).getName());
+        assertTrue(reloaded.get(0).isDone());
+        assertFalse(Files.exists(tempDir.resolve("tasks.json.journal")));
+    }
+
+    @Test
+    public void journaled_close_compactsIntoSnapshot() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString(), false, true);
+        store.add(new Todo("read"));
+        store.close();
+
+        assertFalse(Files.exists(tempDir.resolve("tasks.json.journal")));
+        assertTrue(Files.readString(filePath).contains("\"name\":\"read\""));
+    }
+
+    @Test
+    public void journaled_thresholdReached_compactsIntoSnapshot() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString(), false, true);
+        for (int i = 0; i < JsonStore.COMPACT_THRESHOLD; i++) {
+            store.add(new Todo("task " + i));
+        }
+
+        assertFalse(Files.exists(tempDir.resolve("tasks.json.journal")));
+        assertEquals(JsonStore.COMPACT_THRESHOLD, new JsonStore(filePath.toString()).list().size());
+    }
+
+    @Test
+    public void journaled_tornLastRecord_isIgnored() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString(), false, true);
+        store.add(new Todo("read"));
+        Path journalPath = tempDir.resolve("tasks.json.journal");
+        Files.writeString(journalPath, Files.readString(journalPath) + "{\"op\":\"add\",\"ta");
+
+        JsonStore reloaded = new JsonStore(filePath.toString());
+        assertEquals(1, reloaded.list().size());
+    }
+
+    @Test
+    public void journaled_staleJournal_isIgnored() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString(), false, true);
+        store.add(new Todo("read"));
+        Files.writeString(filePath, "[]");
+
+        JsonStore reloaded = new JsonStore(filePath.toString());
+        assertEquals(0, reloaded.list().size());
+    }
+
+    @Test
+    public void constructor_truncatedData_recoverKeepsCompleteTasks() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString());
+        store.add(new Todo("read"));
+        store.add(new Todo("write"));
+        String content = Files.readString(filePath);
+        Files.writeString(filePath, content.substring(0, content.length() - 10));
+        Files.delete(tempDir.resolve("tasks.json.bak"));
+
+        assertThrows(IbatunCorruptedDataException.class, () -> new JsonStore(filePath.toString()));
+        JsonStore recovered = new JsonStore(filePath.toString(), true);
+        assertEquals(1, recovered.list().size());
+        assertEquals("read", recovered.get(0).getName());
+    }
+
+    @Test
+    public void constructor_trailingContent_throwsWarningException() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        Files.writeString(filePath, "[] []");
+
+        assertThrows(IbatunCorruptedDataException.class, () -> new JsonStore(filePath.toString()));
+    }
+
+    @Test
+    public void async_flush_writesAllChanges() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString(), false, false, true);
+        for (int i = 0; i < 50; i++) {
+            store.add(new Todo("task " + i));
+        }
+        store.modify(49, Task::mark);
+        store.flush();
+
+        JsonStore reloaded = new JsonStore(filePath.toString());
+        assertEquals(50, reloaded.list().size());
+        assertTrue(reloaded.get(49).isDone());
+        store.close();
+    }
+
+    @Test
+    public void asyncJournaled_close_compactsAllChanges() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString(), false, true, true);
+        store.add(new Todo("read"));
+        store.add(new Todo("write"));
+        store.remove(0);
+        store.close();
+
+        assertFalse(Files.exists(tempDir.resolve("tasks.json.journal")));
+        JsonStore reloaded = new JsonStore(filePath.toString());
+        assertEquals(1, reloaded.list().size());
+        assertEquals("write", reloaded.get(0).getName());
+    }
+
+    @Test
+    public void asyncJournaled_closeTwice_secondCloseDoesNothing() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString(), false, true, true);
+        store.add(new Todo("read"));
+        store.close();
+        store.close();
+
+        assertEquals(1, new JsonStore(filePath.toString()).list().size());
+    }
+
+    @Test
+    public void async_flushAfterClose_doesNothing() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString(), false, false, true);
+        store.add(new Todo("read"));
+        store.close();
+        store.flush();
+
+        assertEquals(1, new JsonStore(filePath.toString()).list().size());
+    }
+
+    @Test
+    public void asyncJournaled_flush_appendsToJournal() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString(), false, true, true);
+        store.add(new Todo("read"));
+        store.flush();
+
+        JsonStore reloaded = new JsonStore(filePath.toString());
+        assertEquals(1, reloaded.list().size());
+        store.close();
+    }
+
+    @Test
+    public void add_keepsPreviousGenerationAsBackup() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString());
+        store.add(new Todo("read"));
+        store.add(new Todo("write"));
+
+        String backup = Files.readString(tempDir.resolve("tasks.json.bak"));
+        assertTrue(backup.contains("\"name\":\"read\""));
+        assertFalse(backup.contains("\"name\":\"write\""));
+        assertFalse(Files.exists(tempDir.resolve("tasks.json.tmp")));
+    }
+
+    @Test
+    public void constructor_corruptedDataWithBackup_loadsBackup() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString());
+        store.add(new Todo("read"));
+        store.add(new Todo("write"));
+        Files.writeString(filePath, "[{\"name\":\"wri");
+
+        JsonStore reloaded = new JsonStore(filePath.toString());
+        assertEquals(1, reloaded.list().size());
+        assertEquals("read", reloaded.get(0).getName());
+        assertTrue(reloaded.getLoadNotice().contains("restored"));
+        assertNull(store.getLoadNotice());
+    }
+
+    @Test
+    public void constructor_missingFileWithBackup_loadsBackup() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString());
+        store.add(new Todo("read"));
+        store.add(new Todo("write"));
+        Files.delete(filePath);
+
+        JsonStore reloaded = new JsonStore(filePath.toString());
+        assertEquals(1, reloaded.list().size());
+        assertTrue(reloaded.getLoadNotice().contains("restored"));
+    }
+
+    @Test
+    public void journaled_legacyDataWithoutIds_keepsAssignedIds() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        Files.writeString(filePath, "[{\"name\":\"read\",\"isDone\":false,\"type\":\"todo\"},"
+                + "{\"name\":\"write\",\"isDone\":false,\"type\":\"todo\"}]");
+        JsonStore store = new JsonStore(filePath.toString(), false, true);
+        store.removeById(1);
+        store.add(new Todo("sleep"));
+
+        JsonStore reloaded = new JsonStore(filePath.toString());
+        assertEquals(2, reloaded.getById(2).getId());
+        assertEquals("write", reloaded.getById(2).getName());
+        assertEquals("sleep", reloaded.getById(3).getName());
+    }
+
+    @Test
+    public void journaled_bulkOperations_appendOneRecordEach() throws Exception {
+        Path filePath = tempDir.resolve("tasks.json");
+        JsonStore store = new JsonStore(filePath.toString(), false, true);
+        for (int i = 0; i < 10; i++) {
+            store.add(new Todo("task " + i));
+        }
+        store.modifyAll(new int[] { 0, 5, 9 }, Task::mark);
+        store.removeAll(new int[] { 1, 2, 3, 9 });
+
+        String journal = Files.readString(tempDir.resolve("tasks.json.journal"));
+        assertEquals(13, journal.lines().count());
+
+        JsonStore reloaded = new JsonStore(filePath.toString());
+        assertEquals(6, reloaded.list().size());
+        assertEquals("task 4", reloaded.get(1).getName());
+        assertTrue(reloaded.get(0).isDone());
+        assertTrue(reloaded.get(2).isDone());
+        assertFalse(reloaded.get(5).isDone());
+    }
 }
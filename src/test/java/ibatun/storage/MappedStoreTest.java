@@ -0,0 +1,173 @@
+package ibatun.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ibatun.errors.IbatunCorruptedDataException;
+import ibatun.tasks.Deadline;
+import ibatun.tasks.Event;
+import ibatun.tasks.Task;
+import ibatun.tasks.Todo;
+
+public class MappedStoreTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void constructor_missingFile_startsEmpty() throws Exception {
+        try (MappedStore store = new MappedStore(tempDir.resolve("missing.map").toString())) {
+            assertEquals(0, store.list().size());
+        }
+    }
+
+    @Test
+    public void constructor_existingFile_loadsAllTaskTypes() throws Exception {
+        Path filePath = tempDir.resolve("tasks.map");
+        try (MappedStore store = new MappedStore(filePath.toString())) {
+            store.add(new Todo("read"));
+            store.add(new Deadline("submit", LocalDateTime.of(2026, 2, 11, 23, 59)));
+            store.add(new Event("conf", LocalDateTime.of(2026, 2, 12, 9, 0, 0, 500),
+                    LocalDateTime.of(2026, 2, 12, 18, 0)));
+            store.modify(1, Task::mark);
+        }
+
+        try (MappedStore reloaded = new MappedStore(filePath.toString())) {
+            assertEquals(3, reloaded.list().size());
+            assertInstanceOf(Todo.class, reloaded.get(0));
+            Deadline deadline = assertInstanceOf(Deadline.class, reloaded.get(1));
+            assertEquals(LocalDateTime.of(2026, 2, 11, 23, 59), deadline.getBy());
+            assertTrue(deadline.isDone());
+            Event event = assertInstanceOf(Event.class, reloaded.get(2));
+            assertEquals(LocalDateTime.of(2026, 2, 12, 9, 0, 0, 500), event.getFrom());
+            assertEquals(LocalDateTime.of(2026, 2, 12, 18, 0), event.getTo());
+            assertFalse(event.isDone());
+        }
+    }
+
+    @Test
+    public void modify_changesOnlyDoneByte() throws Exception {
+        Path filePath = tempDir.resolve("tasks.map");
+        try (MappedStore store = new MappedStore(filePath.toString())) {
+            store.add(new Todo("read"));
+            store.add(new Todo("write"));
+            store.flush();
+            byte[] before = Files.readAllBytes(filePath);
+
+            store.modify(1, Task::mark);
+            store.flush();
+            byte[] after = Files.readAllBytes(filePath);
+
+            int doneOffset = MappedStore.HEADER_SIZE + MappedStore.RECORD_SIZE;
+            assertEquals(0, before[doneOffset]);
+            assertEquals(1, after[doneOffset]);
+            after[doneOffset] = 0;
+            assertArrayEquals(before, after);
+        }
+    }
+
+    @Test
+    public void remove_shiftsLaterTasks() throws Exception {
+        Path filePath = tempDir.resolve("tasks.map");
+        try (MappedStore store = new MappedStore(filePath.toString())) {
+            for (int i = 0; i < 100; i++) {
+                store.add(new Todo("task " + i));
+            }
+            store.remove(0);
+            store.remove(50);
+            store.modify(97, Task::mark);
+        }
+
+        try (MappedStore reloaded = new MappedStore(filePath.toString())) {
+            assertEquals(98, reloaded.list().size());
+            assertEquals("task 1", reloaded.get(0).getName());
+            assertEquals("task 52", reloaded.get(50).getName());
+            assertEquals("task 99", reloaded.get(97).getName());
+            assertTrue(reloaded.get(97).isDone());
+        }
+    }
+
+    @Test
+    public void constructor_mostlyRemovedNames_compactsHeap() throws Exception {
+        Path filePath = tempDir.resolve("tasks.map");
+        try (MappedStore store = new MappedStore(filePath.toString())) {
+            for (int i = 0; i < 1000; i++) {
+                store.add(new Todo("a fairly long task name " + i));
+            }
+            while (store.list().size() > 1) {
+                store.remove(0);
+            }
+        }
+        assertTrue(Files.exists(MappedStore.heapPath(filePath, 1)));
+
+        try (MappedStore reloaded = new MappedStore(filePath.toString())) {
+            assertEquals("a fairly long task name 999", reloaded.get(0).getName());
+        }
+        assertFalse(Files.exists(MappedStore.heapPath(filePath, 1)));
+        assertEquals("a fairly long task name 999".length(), Files.size(MappedStore.heapPath(filePath, 2)));
+    }
+
+    @Test
+    public void constructor_corruptedData_throwsWarningException() throws Exception {
+        Path filePath = tempDir.resolve("corrupted.map");
+        Files.writeString(filePath, "{not a mapped file}");
+
+        assertThrows(IbatunCorruptedDataException.class, () -> new MappedStore(filePath.toString()));
+        try (MappedStore recovered = new MappedStore(filePath.toString(), true)) {
+            assertEquals(0, recovered.list().size());
+            recovered.add(new Todo("read"));
+        }
+        try (MappedStore reloaded = new MappedStore(filePath.toString())) {
+            assertEquals(1, reloaded.list().size());
+        }
+    }
+
+    @Test
+    public void storeConverter_roundTrip_preservesTasks() throws Exception {
+        Path jsonPath = tempDir.resolve("tasks.json");
+        JsonStore jsonStore = new JsonStore(jsonPath.toString());
+        jsonStore.add(new Todo("read"));
+        jsonStore.add(new Deadline("submit", LocalDateTime.of(2026, 2, 11, 23, 59)));
+        jsonStore.modify(0, Task::mark);
+        String original = Files.readString(jsonPath);
+
+        Path mappedPath = tempDir.resolve("tasks.map");
+        assertEquals(2, StoreConverter.jsonToMapped(jsonPath.toString(), mappedPath.toString(), false));
+
+        Path convertedPath = tempDir.resolve("converted.json");
+        assertEquals(2, StoreConverter.mappedToJson(mappedPath.toString(), convertedPath.toString(), false));
+        assertEquals(original, Files.readString(convertedPath));
+    }
+
+    @Test
+    public void bulkOperations_updateRecordsInPlace() throws Exception {
+        Path filePath = tempDir.resolve("tasks.map");
+        try (MappedStore store = new MappedStore(filePath.toString())) {
+            for (int i = 0; i < 10; i++) {
+                store.add(new Todo("task " + i));
+            }
+            store.modifyAll(new int[] { 0, 5, 9 }, Task::mark);
+            store.removeAll(new int[] { 9, 1, 2, 3 });
+        }
+
+        try (MappedStore reloaded = new MappedStore(filePath.toString())) {
+            assertEquals(6, reloaded.list().size());
+            assertEquals("task 0", reloaded.get(0).getName());
+            assertEquals("task 4", reloaded.get(1).getName());
+            assertEquals("task 8", reloaded.get(5).getName());
+            assertTrue(reloaded.get(0).isDone());
+            assertTrue(reloaded.get(2).isDone());
+            assertFalse(reloaded.get(5).isDone());
+        }
+    }
+}
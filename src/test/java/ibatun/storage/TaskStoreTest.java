@@ -72,4 +72,91 @@ public class TaskStoreTest {
         TaskStore store = new DummyStore(new ArrayList<>());
         assertThrows(IbatunTaskNotFoundException.class, () -> store.modify(0, Task::mark));
     }
+
+    @Test
+    public void constructor_missingAndDuplicateIds_assignsUniqueIds() {
+        Task first = new Todo("read");
+        Task second = new Todo("write");
+        second.setId(5);
+        Task third = new Todo("sleep");
+        third.setId(5);
+        new DummyStore(new ArrayList<>(List.of(first, second, third)));
+        assertEquals(6, first.getId());
+        assertEquals(5, second.getId());
+        assertEquals(7, third.getId());
+    }
+
+    @Test
+    public void add_assignsIncreasingIds() throws Exception {
+        TaskStore store = new DummyStore(new ArrayList<>());
+        store.add(new Todo("read"));
+        store.add(new Todo("write"));
+        store.remove(1);
+        store.add(new Todo("sleep"));
+        assertEquals(1, store.get(0).getId());
+        assertEquals(3, store.get(1).getId());
+    }
+
+    @Test
+    public void removeById_keepsLaterIdsResolvable() throws Exception {
+        TaskStore store = new DummyStore(new ArrayList<>());
+        for (int i = 0; i < 10; i++) {
+            store.add(new Todo("task " + i));
+        }
+        store.removeById(3);
+        store.removeById(8);
+        assertEquals("task 3", store.getById(4).getName());
+        assertEquals(2, store.indexOf(4));
+        assertEquals(7, store.indexOf(10));
+        store.modifyById(10, Task::mark);
+        assertEquals(true, store.get(7).isDone());
+        assertThrows(IbatunTaskNotFoundException.class, () -> store.getById(3));
+    }
+
+    @Test
+    public void removeAll_unsortedWithRepeats_removesEachOnce() throws Exception {
+        TaskStore store = new DummyStore(new ArrayList<>());
+        for (int i = 0; i < 10; i++) {
+            store.add(new Todo("task " + i));
+        }
+        store.removeAll(new int[] { 7, 2, 3, 7, 9 });
+        assertEquals(6, store.list().size());
+        assertEquals("task 4", store.get(2).getName());
+        assertEquals("task 8", store.get(5).getName());
+        assertEquals(5, store.indexOf(9));
+        assertThrows(IbatunTaskNotFoundException.class, () -> store.getById(8));
+    }
+
+    @Test
+    public void removeAll_outOfRange_removesNothing() throws Exception {
+        TaskStore store = new DummyStore(new ArrayList<>(List.of(new Todo("read"), new Todo("write"))));
+        assertThrows(IbatunTaskNotFoundException.class, () -> store.removeAll(new int[] { 0, 2 }));
+        assertEquals(2, store.list().size());
+    }
+
+    @Test
+    public void modifyAll_appliesModifierToEachTask() throws Exception {
+        TaskStore store = new DummyStore(new ArrayList<>(List.of(new Todo("read"), new Todo("write"))));
+        store.modifyAll(new int[] { 1, 0, 1 }, Task::mark);
+        assertEquals(true, store.get(0).isDone());
+        assertEquals(true, store.get(1).isDone());
+    }
+
+    @Test
+    public void getVersion_growsOnEveryChange() throws Exception {
+        TaskStore store = new DummyStore(new ArrayList<>(List.of(new Todo("read"))));
+        long version = store.getVersion();
+
+        store.add(new Todo("write"));
+        assertEquals(version + 1, store.getVersion());
+        store.modify(0, Task::mark);
+        store.modifyAll(new int[] { 0, 1 }, Task::mark);
+        store.removeAll(new int[] { 1 });
+        store.remove(0);
+        assertEquals(version + 5, store.getVersion());
+
+        store.list();
+        store.removeAll(new int[] {});
+        assertEquals(version + 5, store.getVersion());
+    }
 }
@@ -0,0 +1,31 @@
+package ibatun.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskTest {
+    @Test
+    public void getNormalizedWords_matchesRegexSplit() {
+        for (String name : List.of("Read Book", "  leading and trailing  ", "tab\tand\nnewline", "x",
+                "non\u00a0breaking space", "\u000bvertical\fform\rfeed")) {
+            Task task = new Todo(name);
+            String lowerName = name.toLowerCase();
+            List<String> expected = Arrays.stream(lowerName.split("\\s+")).filter(word -> !word.isEmpty()).toList();
+
+            assertEquals(lowerName, task.getNormalizedName());
+            assertEquals(expected, task.getNormalizedWords(), name);
+        }
+    }
+
+    @Test
+    public void getNormalizedWords_repeatedCalls_reuseResult() {
+        Task task = new Todo("Read Book");
+        assertSame(task.getNormalizedWords(), task.getNormalizedWords());
+        assertSame(task.getNormalizedName(), task.getNormalizedName());
+    }
+}
@@ -0,0 +1,54 @@
+package ibatun.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ibatun.handling.RowResponse;
+
+public class HistoryArchiveTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void append_nothingYet_createsNoFile() throws Exception {
+        Path path = tempDir.resolve("history.txt");
+        HistoryArchive archive = new HistoryArchive(path);
+
+        archive.close();
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    public void append_messagesAndRows_writesThemInOrder() throws Exception {
+        Path path = tempDir.resolve("nested").resolve("history.txt");
+        HistoryArchive archive = new HistoryArchive(path);
+        RowResponse rows = new RowResponse("Here are the tasks:", 2, i -> "    " + (i + 1) + ". task");
+
+        archive.append(List.of(ChatMessage.fromUser("list"), ChatMessage.fromBot(rows)));
+        archive.append(List.of(ChatMessage.fromBot("Bye")));
+        archive.close();
+
+        assertEquals("> list\n\nHere are the tasks:\n    1. task\n    2. task\n\nBye\n\n", Files.readString(path));
+    }
+
+    @Test
+    public void append_afterReopening_keepsEarlierHistory() throws Exception {
+        Path path = tempDir.resolve("history.txt");
+        HistoryArchive first = new HistoryArchive(path);
+        first.append(List.of(ChatMessage.fromUser("todo read")));
+        first.close();
+
+        HistoryArchive second = new HistoryArchive(path);
+        second.append(List.of(ChatMessage.fromUser("list")));
+        second.close();
+
+        assertEquals("> todo read\n\n> list\n\n", Files.readString(path));
+    }
+}
@@ -0,0 +1,41 @@
+package ibatun.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+public class DatetimeFormatContextTest {
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    @Test
+    public void format_relativeToContextDay() {
+        var context = DatetimeFormatContext.forDay(TODAY, ZoneOffset.UTC);
+        assertEquals("09:15", context.format(LocalDateTime.of(2026, 10, 18, 9, 15)));
+        assertEquals("Oct 3 at 14:30", context.format(LocalDateTime.of(2026, 10, 3, 14, 30)));
+        assertEquals("May 10", context.format(LocalDateTime.of(2026, 5, 10, 0, 0)));
+        assertEquals("May 10, 2027 at 14:30", context.format(LocalDateTime.of(2027, 5, 10, 14, 30)));
+
+        var nextDay = DatetimeFormatContext.forDay(TODAY.plusDays(1), ZoneOffset.UTC);
+        assertEquals("Oct 18 at 09:15", nextDay.format(LocalDateTime.of(2026, 10, 18, 9, 15)));
+    }
+
+    @Test
+    public void format_repeatedDateTime_reusesString() {
+        var context = DatetimeFormatContext.forDay(TODAY, ZoneOffset.UTC);
+        String first = context.format(LocalDateTime.of(2026, 12, 1, 8, 0));
+        assertSame(first, context.format(LocalDateTime.of(2026, 12, 1, 8, 0)));
+    }
+
+    @Test
+    public void format_converterMatchesCurrentContext() {
+        var dateTime = LocalDateTime.of(2026, 12, 1, 8, 0);
+        var context = DatetimeFormatContext.forDay(DatetimeFormatContext.current().getToday(), ZoneId.systemDefault());
+        assertEquals(context.format(dateTime), DatetimeConverter.format(dateTime));
+    }
+}
@@ -0,0 +1,99 @@
+package ibatun.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class DatetimeParserTest {
+    // A Sunday afternoon
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 14, 5);
+
+    private static LocalDateTime parse(String input) {
+        return DatetimeParser.parse(input, NOW);
+    }
+
+    @Test
+    public void parse_isoDateTime_strict() {
+        assertEquals(LocalDateTime.of(2026, 2, 18, 10, 15, 30, 500_000_000), parse("2026-02-18t10:15:30.5"));
+        assertEquals(LocalDateTime.of(2026, 2, 18, 10, 15), parse("2026-02-18T10:15+08:00"));
+        assertEquals(LocalDateTime.of(2026, 2, 18, 10, 15), parse("2026-02-18T10:15z"));
+        assertEquals(LocalDateTime.of(-2026, 2, 18, 0, 0), parse("-2026-02-18"));
+        assertEquals(LocalDateTime.of(12345, 1, 1, 0, 0), parse("+12345-01-01"));
+        assertNull(parse("2026-02-30"));
+        assertNull(parse("2026-02-18T24:00"));
+        assertNull(parse("2026-02-18T10:15+19:00"));
+        assertNull(parse("2026-02-18Z"));
+        assertNull(parse("+2026-02-18"));
+    }
+
+    @Test
+    public void parse_namedMonth_clampsDayAndRollsMidnight() {
+        assertEquals(LocalDateTime.of(2026, 2, 28, 0, 0), parse("Feb 30"));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0), parse("2024 feb 31"));
+        assertEquals(LocalDateTime.of(2026, 3, 6, 0, 0), parse("2026-MAR-05 24:00"));
+        assertEquals(LocalDateTime.of(2026, 9, 1, 0, 0), parse("\u017fep 1"));
+        assertEquals(LocalDateTime.of(2027, 3, 3, 0, 0), parse("Mar 3, 2027"));
+        assertNull(parse("Feb 32"));
+        assertNull(parse("Mar-3 2027"));
+        assertNull(parse("Sept 1"));
+    }
+
+    @Test
+    public void parse_numberBeforeMonth_prefersYearFirst() {
+        assertEquals(LocalDateTime.of(2026, 2, 11, 0, 0), parse("2026 Feb 11"));
+        assertEquals(LocalDateTime.of(2026, 2, 11, 0, 0), parse("0011 Feb 2026"));
+        assertEquals(LocalDateTime.of(2026, 2, 5, 0, 0), parse("5-feb-2026"));
+        assertEquals(LocalDateTime.of(12345, 2, 5, 0, 0), parse("5 Feb +12345"));
+        assertNull(parse("5 Feb 12345"));
+        assertNull(parse("5 Feb -2026"));
+    }
+
+    @Test
+    public void parse_numericDates_success() {
+        assertEquals(LocalDateTime.of(2027, 5, 12, 0, 0), parse("12/5/2027"));
+        assertEquals(LocalDateTime.of(2027, 5, 12, 0, 0), parse("012-05-2027"));
+        assertEquals(LocalDateTime.of(2027, 4, 30, 0, 0), parse("31/4/2027"));
+        assertNull(parse("12/13/2027"));
+        assertNull(parse("12/5/27"));
+    }
+
+    @Test
+    public void parse_times_anchoredToNow() {
+        assertEquals(LocalDateTime.of(2026, 10, 18, 15, 0), parse("3pm"));
+        assertEquals(LocalDateTime.of(2026, 10, 19, 9, 30), parse("9:30 AM"));
+        assertEquals(LocalDateTime.of(2026, 10, 19, 12, 0), parse("0pm"));
+        assertEquals(LocalDateTime.of(2026, 10, 18, 9, 30), parse("09:30"));
+        assertEquals(LocalDateTime.of(2026, 10, 19, 0, 0), parse("24:00"));
+        assertEquals(LocalDateTime.of(2026, 6, 1, 17, 0), parse("Jun 1 5pm"));
+        assertNull(parse("9:30"));
+        assertNull(parse("13pm"));
+        assertNull(parse("3-pm"));
+    }
+
+    @Test
+    public void parse_weekdays_nextOccurrence() {
+        assertEquals(LocalDateTime.of(2026, 10, 23, 0, 0), parse("Fri"));
+        assertEquals(LocalDateTime.of(2026, 10, 25, 0, 0), parse("SUNDAY"));
+        assertEquals(LocalDateTime.of(2026, 10, 20, 0, 0), parse("tues"));
+        assertNull(parse("fridays"));
+    }
+
+    @Test
+    public void hasTime_onlyForInputsWithTimeOfDay() {
+        assertTrue(DatetimeParser.hasTime("2026-02-18T00:00", NOW));
+        assertTrue(DatetimeParser.hasTime("2026 Feb 18 00:00", NOW));
+        assertTrue(DatetimeParser.hasTime("Feb 18 12am", NOW));
+        assertTrue(DatetimeParser.hasTime("12am", NOW));
+        assertTrue(DatetimeParser.hasTime("00:00", NOW));
+        assertFalse(DatetimeParser.hasTime("2026-02-18", NOW));
+        assertFalse(DatetimeParser.hasTime("18/2/2026", NOW));
+        assertFalse(DatetimeParser.hasTime("Feb 18, 2026", NOW));
+        assertFalse(DatetimeParser.hasTime("Fri", NOW));
+        assertFalse(DatetimeParser.hasTime("2026-02-18T25:00", NOW));
+    }
+}
@@ -0,0 +1,76 @@
+package ibatun.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class EditDistanceTest {
+    @Test
+    public void distance_knownPairs() {
+        assertEquals(3, EditDistance.distance("kitten", "sitting"));
+        assertEquals(0, EditDistance.distance("", ""));
+        assertEquals(4, EditDistance.distance("", "book"));
+        assertEquals(2, EditDistance.distance("flaw", "lawn"));
+    }
+
+    @Test
+    public void boundedDistance_beyondLimit_returnsLimitPlusOne() {
+        assertEquals(2, EditDistance.boundedDistance("kitten", "sitting", 1));
+        assertEquals(3, EditDistance.boundedDistance("kitten", "sitting", 3));
+        assertEquals(1, EditDistance.boundedDistance("a", "abcdef", 0));
+    }
+
+    @Test
+    public void boundedDistance_randomStrings_matchesFullTable() {
+        Random random = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            // Lengths straddle the 64-character word size so both algorithms are exercised
+            String a = randomString(random, random.nextInt(i % 10 == 0 ? 150 : 12));
+            String b = randomString(random, random.nextInt(i % 10 == 0 ? 150 : 12));
+            int expected = fullTableDistance(a, b);
+            int max = random.nextInt(12);
+            String pair = a + " / " + b;
+            assertEquals(Math.min(expected, max + 1), EditDistance.boundedDistance(a, b, max), pair);
+            assertEquals(expected, EditDistance.distance(a, b), pair);
+        }
+    }
+
+    @Test
+    public void boundedDistance_patternOfWordSize_matchesFullTable() {
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            String a = randomString(random, 64);
+            String b = randomString(random, 60 + random.nextInt(10));
+            assertEquals(fullTableDistance(a, b), EditDistance.distance(a, b), a + " / " + b);
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        // A small alphabet with a couple of non-ASCII characters keeps distances small and interesting
+        String alphabet = "abc\u00e9\u4e2d";
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private static int fullTableDistance(String a, String b) {
+        int[][] dp = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            dp[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            dp[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                dp[i][j] = Math.min(Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1), dp[i - 1][j - 1] + cost);
+            }
+        }
+        return dp[a.length()][b.length()];
+    }
+}
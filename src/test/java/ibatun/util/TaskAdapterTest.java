@@ -87,4 +87,40 @@ public class TaskAdapterTest {
         String json = "{\"type\":\"mystery\",\"name\":\"read\",\"isDone\":false}";
         assertThrows(JsonParseException.class, () -> gson.fromJson(json, Task.class));
     }
+
+    @Test
+    public void serialize_keepsFieldOrderAndFormat() {
+        Task deadline = new Deadline("submit", LocalDateTime.of(2026, 2, 11, 23, 59));
+        deadline.mark();
+        assertEquals("{\"by\":\"2026-02-11T23:59:00\",\"name\":\"submit\",\"isDone\":true,\"type\":\"deadline\"}",
+                gson.toJson(deadline, Task.class));
+
+        Task event = new Event("conf", LocalDateTime.of(2026, 2, 12, 9, 0), LocalDateTime.of(2026, 2, 12, 18, 0));
+        assertEquals("{\"from\":\"2026-02-12T09:00:00\",\"to\":\"2026-02-12T18:00:00\",\"name\":\"conf\","
+                + "\"isDone\":false,\"type\":\"event\"}", gson.toJson(event, Task.class));
+    }
+
+    @Test
+    public void deserialize_typeBeforeFields_success() {
+        String json = "{\"type\":\"deadline\",\"isDone\":true,\"name\":\"submit\",\"by\":\"2026-02-11T23:59:00\"}";
+        Task output = gson.fromJson(json, Task.class);
+        assertInstanceOf(Deadline.class, output);
+        assertEquals(LocalDateTime.of(2026, 2, 11, 23, 59), ((Deadline) output).getBy());
+        assertEquals(true, output.isDone());
+    }
+
+    @Test
+    public void deserialize_missingDate_throws() {
+        String json = "{\"name\":\"submit\",\"isDone\":false,\"type\":\"deadline\"}";
+        assertThrows(JsonParseException.class, () -> gson.fromJson(json, Task.class));
+    }
+
+    @Test
+    public void serialize_assignedId_roundTrips() {
+        Task input = new Todo("read");
+        input.setId(42);
+        String json = gson.toJson(input, Task.class);
+        assertEquals("{\"name\":\"read\",\"isDone\":false,\"id\":42,\"type\":\"todo\"}", json);
+        assertEquals(42, gson.fromJson(json, Task.class).getId());
+    }
 }